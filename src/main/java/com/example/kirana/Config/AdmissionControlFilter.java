@@ -0,0 +1,149 @@
+package com.example.kirana.Config;
+
+import com.example.kirana.Utils.AdaptiveConcurrencyLimiter;
+import com.example.kirana.Utils.AdaptiveConcurrencyLimiter.Priority;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control in front of the controllers.
+ *
+ * <p>Every API request is put into a priority class (checkout writes, short reports, registration
+ * and login, long reports) and has to get a slot from an {@link AdaptiveConcurrencyLimiter} before it runs. Under overload
+ * long reports are queued and shed first, so writes keep their latency. Shed requests get
+ * 503 Service Unavailable with a Retry-After header.</p>
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class AdmissionControlFilter extends OncePerRequestFilter {
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    @Value("${kirana.admission.write.max-wait-ms:2000}")
+    private long writeMaxWaitMs;
+
+    @Value("${kirana.admission.short-report.max-wait-ms:500}")
+    private long shortReportMaxWaitMs;
+
+    @Value("${kirana.admission.auth.max-wait-ms:1000}")
+    private long authMaxWaitMs;
+
+    @Value("${kirana.admission.long-report.max-wait-ms:100}")
+    private long longReportMaxWaitMs;
+
+    @Value("${kirana.admission.write.latency-target-ms:200}")
+    private long writeLatencyTargetMs;
+
+    @Value("${kirana.admission.short-report.latency-target-ms:1000}")
+    private long shortReportLatencyTargetMs;
+
+    @Value("${kirana.admission.auth.latency-target-ms:1000}")
+    private long authLatencyTargetMs;
+
+    @Value("${kirana.admission.long-report.latency-target-ms:5000}")
+    private long longReportLatencyTargetMs;
+
+    public AdmissionControlFilter(@Value("${kirana.admission.initial-limit:20}") int initialLimit,
+                                  @Value("${kirana.admission.min-limit:4}") int minLimit,
+                                  @Value("${kirana.admission.max-limit:200}") int maxLimit,
+                                  @Value("${kirana.admission.max-queue:100}") int maxQueue) {
+        this.limiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, maxQueue);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // The live report stream holds its connection open and does no work per request
+        String path = request.getRequestURI();
+        return !path.startsWith("/api/") || path.endsWith("/reports/live");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Priority priority = classify(request);
+
+        AdaptiveConcurrencyLimiter.Permit permit;
+        try {
+            permit = limiter.tryAcquire(priority, maxWaitMs(priority), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            permit = null;
+        }
+        if (permit == null) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds(priority)));
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Server is busy, please try again later.");
+            return;
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permit.release(TimeUnit.MILLISECONDS.toNanos(latencyTargetMs(priority)));
+        }
+    }
+
+    // Weekly reports scan a few days; monthly and yearly reports count as long reports
+    static Priority classify(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        if (path.endsWith("/addtransaction")) {
+            return Priority.WRITE;
+        }
+        if (path.endsWith("/users/register") || path.endsWith("/users/login")) {
+            return Priority.AUTH;
+        }
+        if (path.endsWith("/reports")) {
+            String type = request.getParameter("type");
+            return "weekly".equalsIgnoreCase(type) ? Priority.SHORT_REPORT : Priority.LONG_REPORT;
+        }
+        return Priority.SHORT_REPORT;
+    }
+
+    private long maxWaitMs(Priority priority) {
+        switch (priority) {
+            case WRITE:
+                return writeMaxWaitMs;
+            case SHORT_REPORT:
+                return shortReportMaxWaitMs;
+            case AUTH:
+                return authMaxWaitMs;
+            default:
+                return longReportMaxWaitMs;
+        }
+    }
+
+    private long latencyTargetMs(Priority priority) {
+        switch (priority) {
+            case WRITE:
+                return writeLatencyTargetMs;
+            case SHORT_REPORT:
+                return shortReportLatencyTargetMs;
+            case AUTH:
+                return authLatencyTargetMs;
+            default:
+                return longReportLatencyTargetMs;
+        }
+    }
+
+    private static int retryAfterSeconds(Priority priority) {
+        switch (priority) {
+            case WRITE:
+                return 1;
+            case SHORT_REPORT:
+            case AUTH:
+                return 5;
+            default:
+                return 30;
+        }
+    }
+}
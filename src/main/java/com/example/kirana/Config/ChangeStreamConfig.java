@@ -0,0 +1,20 @@
+package com.example.kirana.Config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.messaging.DefaultMessageListenerContainer;
+import org.springframework.data.mongodb.core.messaging.MessageListenerContainer;
+
+/**
+ * Container for MongoDB change-stream subscriptions. Change streams need a replica set
+ * (a single-node one is enough); on a standalone server the subscription fails, is logged and
+ * report rollups are not cached.
+ */
+@Configuration
+public class ChangeStreamConfig {
+    @Bean
+    public MessageListenerContainer messageListenerContainer(MongoTemplate mongoTemplate) {
+        return new DefaultMessageListenerContainer(mongoTemplate);
+    }
+}
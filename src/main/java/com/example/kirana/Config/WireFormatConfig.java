@@ -0,0 +1,39 @@
+package com.example.kirana.Config;
+
+import com.example.kirana.Utils.TransactionBinaryCodec;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Lets clients request the compact CBOR encoding of transactions with
+ * {@code Accept: application/cbor}. JSON stays the default.
+ *
+ * <p>The CBOR mapper starts from Boot's configured builder, so {@code spring.jackson.*}
+ * settings and registered modules apply to both formats.</p>
+ */
+@Configuration
+public class WireFormatConfig implements WebMvcConfigurer {
+    // Prototype bean: every lookup returns a fresh builder with Boot's customizations applied
+    @Autowired
+    private ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder;
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // postConfigurer instead of modulesToInstall, which would replace the modules Boot installs
+        ObjectMapper cborMapper = objectMapperBuilder.getObject()
+                .factory(new CBORFactory())
+                .postConfigurer(mapper -> mapper.registerModule(TransactionBinaryCodec.module()))
+                .build();
+        converters.removeIf(converter -> converter instanceof MappingJackson2CborHttpMessageConverter);
+        converters.add(new MappingJackson2CborHttpMessageConverter(cborMapper));
+    }
+}
@@ -6,17 +6,22 @@ import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 /**
  * REST controller for managing transactions and generating financial reports.
@@ -29,8 +34,13 @@ import java.util.List;
  *     <ul>
  *         <li>POST /api/transactions/addtransaction - Add a transaction</li>
  *         <li>GET /api/transactions/reports - Generate financial reports</li>
+ *         <li>GET /api/transactions/reports/live - Stream live report updates</li>
+ *         <li>GET /api/transactions/analytics - Approximate analytics for a window of days</li>
  *     </ul>
  * </p>
+ *
+ * <p>Transactions are returned as JSON by default. Clients sending {@code Accept: application/cbor}
+ * get the compact binary encoding described in {@link com.example.kirana.Utils.TransactionBinaryCodec}.</p>
  */
 @RestController
 @RequestMapping("/api/transactions")
@@ -144,5 +154,51 @@ public class TransactionController {
         List<TransactionModel> transactions = transactionService.getReports(startDate, endDate);
         return new ResponseEntity<>(transactions, HttpStatus.OK);
     }
+
+/**
+ * Streams live credit, debit and net flow updates to a store dashboard.
+ *
+ * <p>The stream starts with a "snapshot" event holding today's totals, followed by one
+ * "transaction" event per transaction recorded by any instance. Dashboards should use
+ * this instead of polling the reports endpoint.</p>
+ *
+ * @return A server-sent event stream of report updates.
+ * @apiNote GET /api/transactions/reports/live
+ */
+
+    @ApiOperation(value = "Stream live report updates", notes = "Pushes today's totals followed by every new credit/debit as server-sent events.")
+    @GetMapping(value = "/reports/live", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamLiveReport() {
+        return transactionService.subscribeToLiveReport();
+    }
+
+/**
+ * Returns approximate analytics for a window of days.
+ *
+ * <p>The answer is merged from per-day sketches, so it takes milliseconds for any window. It holds
+ * amount percentiles (at most 1% relative error), the busiest hours of the day (exact), the top
+ * currencies customers paid in (count-min estimates with their maximum overcount) and the number of
+ * distinct ticket amounts (HyperLogLog estimate with 95% bounds). Sketches start on the day
+ * analytics were first recorded; {@code coverage.coveredFrom} names that day and
+ * {@code coverage.partial} is true when the window starts before it.</p>
+ *
+ * @param from The first day of the window (ISO date, e.g. 2024-09-01).
+ * @param to   The last day of the window, inclusive.
+ * @return A ResponseEntity containing the analytics and an HTTP status code.
+ *         If the window ends before it starts, a BAD REQUEST (400) status code is returned.
+ * @apiNote GET /api/transactions/analytics?from=2024-09-01&amp;to=2024-09-30
+ */
+
+    @ApiOperation(value = "Approximate transaction analytics", notes = "Ticket-size percentiles, busiest hours, top currencies and distinct amounts with error bounds.")
+    @GetMapping("/analytics")
+    public ResponseEntity<Map<String, Object>> getAnalytics(
+            @ApiParam(value = "First day of the window (yyyy-MM-dd)", required = true) @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @ApiParam(value = "Last day of the window, inclusive (yyyy-MM-dd)", required = true) @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ){
+        if (to.isBefore(from)) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return new ResponseEntity<>(transactionService.getApproximateAnalytics(from, to), HttpStatus.OK);
+    }
 }
 
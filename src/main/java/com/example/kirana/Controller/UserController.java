@@ -8,6 +8,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import com.example.kirana.Utils.RateLimitExceededException;
 import com.example.kirana.Utils.UserRegistrationDTO;
 
 @RestController
@@ -24,6 +25,8 @@ public class UserController {
             return new ResponseEntity<>(user, HttpStatus.CREATED);
         } catch (IllegalArgumentException e) {
             return new ResponseEntity<>(null, HttpStatus.CONFLICT);
+        } catch (RateLimitExceededException e) {
+            return new ResponseEntity<>(null, HttpStatus.TOO_MANY_REQUESTS);
         }
     }
 
@@ -0,0 +1,28 @@
+package com.example.kirana.Model;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * A month of transactions that was moved to the archive. The segment file itself is kept in
+ * GridFS so that every instance can read it; the latest archived month is the archive watermark.
+ */
+@Setter
+@Getter
+@Document(collection = "transaction_archive")
+public class ArchivedMonthModel {
+    // The archived month, e.g. "2024-03"; sorts chronologically
+    @Id
+    private String id;
+
+    // GridFS id of the current segment file of the month
+    private String segmentFileId;
+
+    private long rowCount;
+
+    private LocalDateTime archivedAt;
+}
@@ -0,0 +1,46 @@
+package com.example.kirana.Model;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Persisted analytics sketches of one day, as recorded by one application instance. Once a day
+ * is closed the sketches of all instances are merged into one document per day (instance id
+ * "merged"), and once a month is closed its days into one document per month (instance id
+ * "merged-month", dated the first of the month).
+ */
+@Setter
+@Getter
+@Document(collection = "transaction_sketch")
+@CompoundIndex(name = "instanceId_day", def = "{'instanceId': 1, 'day': 1}")
+@CompoundIndex(name = "day_instanceId", def = "{'day': 1, 'instanceId': 1}")
+public class DailySketchModel {
+    // Day and instance, e.g. "2024-09-21_<instance id>" or "2024-09-21_merged"
+    @Id
+    private String id;
+
+    private LocalDate day;
+
+    private String instanceId;
+
+    // Ids of the per-instance documents merged into this one, so a retried compaction merges each only once
+    private List<String> mergedIds = new ArrayList<>();
+
+    private long count;
+
+    // Exact transaction counts per hour of the day
+    private long[] hourCounts;
+
+    private byte[] amountQuantiles;
+
+    private byte[] currencies;
+
+    private byte[] distinctAmounts;
+}
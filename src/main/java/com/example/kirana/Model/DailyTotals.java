@@ -0,0 +1,48 @@
+package com.example.kirana.Model;
+
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Credit and debit totals of a single calendar day.
+ * Instances are immutable so they can be shared between report requests.
+ */
+@Getter
+public class DailyTotals {
+    private final LocalDate day;
+    private final BigDecimal totalCredits;
+    private final BigDecimal totalDebits;
+
+    public DailyTotals(LocalDate day, BigDecimal totalCredits, BigDecimal totalDebits) {
+        this.day = day;
+        this.totalCredits = totalCredits;
+        this.totalDebits = totalDebits;
+    }
+
+    /**
+     * Sums the given transactions into the totals of one day.
+     *
+     * @param day          The day the transactions belong to.
+     * @param transactions The transactions of that day.
+     * @return The credit and debit totals of the day.
+     */
+    public static DailyTotals of(LocalDate day, List<TransactionModel> transactions) {
+        BigDecimal credits = BigDecimal.ZERO;
+        BigDecimal debits = BigDecimal.ZERO;
+        for (TransactionModel transaction : transactions) {
+            if (transaction.getType() == TransactionModel.TransactionType.CREDIT) {
+                credits = credits.add(transaction.getAmount());
+            } else if (transaction.getType() == TransactionModel.TransactionType.DEBIT) {
+                debits = debits.add(transaction.getAmount());
+            }
+        }
+        return new DailyTotals(day, credits, debits);
+    }
+
+    public BigDecimal getNetFlow() {
+        return totalCredits.subtract(totalDebits);
+    }
+}
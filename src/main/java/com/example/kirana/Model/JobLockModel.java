@@ -0,0 +1,25 @@
+package com.example.kirana.Model;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Lease on a scheduled job, so that only one instance runs the job at a time.
+ * An expired lease can be taken over by any instance.
+ */
+@Setter
+@Getter
+@Document(collection = "job_lock")
+public class JobLockModel {
+    // The job name
+    @Id
+    private String id;
+
+    private String owner;
+
+    private Instant expiresAt;
+}
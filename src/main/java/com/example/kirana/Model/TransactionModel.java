@@ -5,6 +5,7 @@ import jakarta.validation.constraints.Size;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.math.BigDecimal;
@@ -29,6 +30,8 @@ public class TransactionModel {
     @NotNull(message = "Transaction type is required")
     private TransactionType type;
 
+    // Every report, rollup and archive query filters or sorts on it
+    @Indexed
     private LocalDateTime timestamp;
 
     public enum TransactionType {
@@ -15,6 +15,7 @@ public class UserModel {
 
     @NotBlank(message = "Email is required")
     @Email(message = "Email should be valid")
+    // Unique index created by UserEmailIndexService
     private String email;
 
     @NotBlank(message = "Password is required")
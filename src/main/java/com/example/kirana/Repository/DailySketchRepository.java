@@ -0,0 +1,69 @@
+package com.example.kirana.Repository;
+
+import com.example.kirana.Model.DailySketchModel;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository for the analytics sketches: per day and instance, and merged per day and per month.
+ */
+@Repository
+public interface DailySketchRepository extends MongoRepository<DailySketchModel, String> {
+    /**
+     * Finds the day-level sketches in a window, skipping one kind of document.
+     *
+     * @param from       The first day of the window.
+     * @param to         The last day of the window.
+     * @param instanceId The instance id to skip, e.g. the one of the merged month documents.
+     * @return The matching sketches of all days from the first to the last, inclusive.
+     */
+    List<DailySketchModel> findByDayGreaterThanEqualAndDayLessThanEqualAndInstanceIdNot(LocalDate from, LocalDate to, String instanceId);
+
+    /**
+     * Finds the sketches with a given instance id in a window, e.g. the merged days or months.
+     *
+     * @param instanceId The instance id.
+     * @param from       The first day of the window.
+     * @param to         The last day of the window.
+     * @return The matching sketches ordered by day.
+     */
+    List<DailySketchModel> findByInstanceIdAndDayGreaterThanEqualAndDayLessThanEqualOrderByDayAsc(String instanceId, LocalDate from, LocalDate to);
+
+    /**
+     * Finds the sketches of days before a given day, except those with the given instance ids.
+     *
+     * @param day         The first day not to return.
+     * @param instanceIds The instance ids to skip.
+     * @return The matching sketches.
+     */
+    List<DailySketchModel> findByDayLessThanAndInstanceIdNotIn(LocalDate day, Collection<String> instanceIds);
+
+    /**
+     * Finds the sketch of the first day analytics were recorded for.
+     *
+     * @param instanceId The instance id to skip, i.e. the one of the merged month documents,
+     *                   which are dated the first of the month.
+     * @return The sketch with the earliest day, or null if none was flushed yet.
+     */
+    DailySketchModel findFirstByInstanceIdNotOrderByDayAsc(String instanceId);
+
+    /**
+     * Finds the earliest sketch with a given instance id.
+     *
+     * @param instanceId The instance id.
+     * @return The sketch with the earliest day, or null if there is none.
+     */
+    DailySketchModel findFirstByInstanceIdOrderByDayAsc(String instanceId);
+
+    /**
+     * Finds the latest sketch with a given instance id.
+     *
+     * @param instanceId The instance id.
+     * @return The sketch with the latest day, or null if there is none.
+     */
+    DailySketchModel findFirstByInstanceIdOrderByDayDesc(String instanceId);
+}
@@ -0,0 +1,56 @@
+package com.example.kirana.Repository;
+
+import com.example.kirana.Model.JobLockModel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Leases on scheduled jobs, stored in MongoDB so they hold across instances.
+ */
+@Repository
+public class JobLockRepository {
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * Takes or extends the lease on a job. The lease is granted if nobody holds it, if it has
+     * expired or if the caller already holds it.
+     *
+     * @param job   The job name.
+     * @param owner The id of the calling instance.
+     * @param lease How long the lease lasts unless it is extended or released.
+     * @return true if the caller now holds the lease.
+     */
+    public boolean tryAcquire(String job, String owner, Duration lease) {
+        Instant now = Instant.now();
+        Query query = new Query(Criteria.where("_id").is(job).orOperator(
+                Criteria.where("expiresAt").lt(now),
+                Criteria.where("owner").is(owner)));
+        Update update = new Update().set("owner", owner).set("expiresAt", now.plus(lease));
+        try {
+            mongoTemplate.upsert(query, update, JobLockModel.class);
+            return true;
+        } catch (DuplicateKeyException e) {
+            // The lease exists and belongs to another instance, so the upsert tried to insert a second one
+            return false;
+        }
+    }
+
+    /**
+     * Releases a lease held by the caller.
+     *
+     * @param job   The job name.
+     * @param owner The id of the calling instance.
+     */
+    public void release(String job, String owner) {
+        mongoTemplate.remove(new Query(Criteria.where("_id").is(job).and("owner").is(owner)), JobLockModel.class);
+    }
+}
@@ -0,0 +1,252 @@
+package com.example.kirana.Repository;
+
+import com.example.kirana.Model.ArchivedMonthModel;
+import com.example.kirana.Model.TransactionModel;
+import com.mongodb.client.gridfs.model.GridFSFile;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.gridfs.GridFsTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Repository for transactions moved out of MongoDB into per-month {@link TransactionSegment} files.
+ *
+ * <p>Segment files are stored in GridFS and listed in the {@code transaction_archive} collection,
+ * so every instance sees the same archive. Each instance downloads a segment once into
+ * {@code kirana.archive.dir} and reads it through a memory map from then on.</p>
+ *
+ * <p>Months are archived oldest first, so the archive always covers every month before
+ * {@link #getArchivedUntil()}. Readers take transactions before that instant from the archive
+ * and everything after it from MongoDB.</p>
+ */
+@Repository
+public class TransactionArchiveRepository {
+    private static final String SEGMENT_PREFIX = "transactions-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    // Segments written by earlier versions only to the local directory are named after their month alone
+    private static final int MONTH_LENGTH = "yyyy-MM".length();
+
+    private final Path directory;
+    private final MongoTemplate mongoTemplate;
+    private final GridFsTemplate gridFsTemplate;
+    // Keyed by GridFS id, so a month that is archived again is downloaded again
+    private final Map<String, TransactionSegment> segments = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TransactionArchiveRepository(@Value("${kirana.archive.dir:archive}") String directory,
+                                        MongoTemplate mongoTemplate, GridFsTemplate gridFsTemplate) throws IOException {
+        this.directory = Paths.get(directory);
+        this.mongoTemplate = mongoTemplate;
+        this.gridFsTemplate = gridFsTemplate;
+        Files.createDirectories(this.directory);
+    }
+
+    /**
+     * Returns the instant before which transactions live in the archive instead of MongoDB.
+     * Always read from the primary, since the archive job moves it before deleting rows.
+     *
+     * @return The start of the first month that is not archived, or null if nothing is archived.
+     */
+    public LocalDateTime getArchivedUntil() {
+        Query query = new Query().with(Sort.by(Sort.Direction.DESC, "_id")).limit(1);
+        ArchivedMonthModel last = mongoTemplate.findOne(query, ArchivedMonthModel.class);
+        return last == null ? null : YearMonth.parse(last.getId()).plusMonths(1).atDay(1).atStartOfDay();
+    }
+
+    /**
+     * Finds archived transactions made strictly after the start and strictly before the end,
+     * matching {@link TransactionRepository#findByTimestampBetween}.
+     *
+     * @param startDate The exclusive start of the window.
+     * @param endDate   The exclusive end of the window.
+     * @return The archived transactions of the window, ordered by timestamp.
+     */
+    public List<TransactionModel> findByTimestampBetween(LocalDateTime startDate, LocalDateTime endDate) {
+        // Stored timestamps have millisecond precision, so "after start" means "at or after the next milli"
+        return find(floorMillis(startDate) + 1, ceilMillis(endDate));
+    }
+
+    /**
+     * Finds archived transactions made on or after the start and strictly before the end.
+     *
+     * @param startDate The inclusive start of the window.
+     * @param endDate   The exclusive end of the window.
+     * @return The archived transactions of the window, ordered by timestamp.
+     */
+    public List<TransactionModel> findByTimestampGreaterThanEqualAndTimestampLessThan(LocalDateTime startDate, LocalDateTime endDate) {
+        return find(ceilMillis(startDate), ceilMillis(endDate));
+    }
+
+    /**
+     * Writes the transactions of a month to a new segment in GridFS and publishes it, replacing
+     * any earlier segment of the month. The watermark only moves once the segment is stored.
+     *
+     * @param month        The archived month; must not be newer than the previous archived month plus one.
+     * @param transactions Every transaction of that month.
+     * @throws IOException if the segment cannot be written.
+     */
+    public synchronized void save(YearMonth month, List<TransactionModel> transactions) throws IOException {
+        Path upload = directory.resolve(SEGMENT_PREFIX + month + SEGMENT_SUFFIX + ".upload");
+        TransactionSegment.write(upload, transactions);
+        ObjectId fileId;
+        try (InputStream in = Files.newInputStream(upload)) {
+            fileId = gridFsTemplate.store(in, SEGMENT_PREFIX + month + SEGMENT_SUFFIX);
+        }
+        Path file = localFile(month.toString(), fileId.toHexString());
+        Files.move(upload, file, StandardCopyOption.REPLACE_EXISTING);
+
+        ArchivedMonthModel previous = mongoTemplate.findById(month.toString(), ArchivedMonthModel.class);
+        ArchivedMonthModel archivedMonth = new ArchivedMonthModel();
+        archivedMonth.setId(month.toString());
+        archivedMonth.setSegmentFileId(fileId.toHexString());
+        archivedMonth.setRowCount(transactions.size());
+        archivedMonth.setArchivedAt(LocalDateTime.now());
+        mongoTemplate.save(archivedMonth);
+        segments.put(fileId.toHexString(), TransactionSegment.open(file));
+
+        if (previous != null) {
+            gridFsTemplate.delete(new Query(Criteria.where("_id").is(new ObjectId(previous.getSegmentFileId()))));
+            segments.remove(previous.getSegmentFileId());
+            Files.deleteIfExists(localFile(previous.getId(), previous.getSegmentFileId()));
+        }
+    }
+
+    /**
+     * Returns every transaction of an archived month.
+     *
+     * @param month The month to read.
+     * @return The archived transactions, or an empty list if the month is not archived.
+     */
+    public List<TransactionModel> findByMonth(YearMonth month) {
+        ArchivedMonthModel archivedMonth = mongoTemplate.findById(month.toString(), ArchivedMonthModel.class);
+        return archivedMonth == null ? List.of() : segment(archivedMonth).readAll();
+    }
+
+    /**
+     * Publishes segments that earlier versions wrote only to this instance's directory, merging
+     * them by id with any segment of the same month another instance published.
+     *
+     * @return The number of published months.
+     * @throws IOException if a segment cannot be read or written.
+     */
+    public synchronized int publishLocalSegments() throws IOException {
+        Map<YearMonth, Path> local = localSegments();
+        for (Map.Entry<YearMonth, Path> entry : local.entrySet()) {
+            Map<String, TransactionModel> transactions = new LinkedHashMap<>();
+            findByMonth(entry.getKey()).forEach(t -> transactions.put(t.getId(), t));
+            TransactionSegment.open(entry.getValue()).readAll().forEach(t -> transactions.put(t.getId(), t));
+            save(entry.getKey(), new ArrayList<>(transactions.values()));
+            Files.delete(entry.getValue());
+        }
+        return local.size();
+    }
+
+    /**
+     * Checks for segments that only exist in this instance's directory.
+     *
+     * @return true if {@link #publishLocalSegments()} has anything to publish.
+     * @throws IOException if the directory cannot be listed.
+     */
+    public boolean hasLocalSegments() throws IOException {
+        return !localSegments().isEmpty();
+    }
+
+    private Map<YearMonth, Path> localSegments() throws IOException {
+        Map<YearMonth, Path> local = new LinkedHashMap<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.sorted().forEach(file -> {
+                String name = file.getFileName().toString();
+                if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)
+                        && name.length() == SEGMENT_PREFIX.length() + MONTH_LENGTH + SEGMENT_SUFFIX.length()) {
+                    local.put(YearMonth.parse(name.substring(SEGMENT_PREFIX.length(), SEGMENT_PREFIX.length() + MONTH_LENGTH)), file);
+                }
+            });
+        }
+        return local;
+    }
+
+    private List<TransactionModel> find(long fromMillis, long toMillis) {
+        if (fromMillis >= toMillis) {
+            return List.of();
+        }
+        YearMonth first = YearMonth.from(fromMillisToDate(fromMillis));
+        YearMonth last = YearMonth.from(fromMillisToDate(toMillis - 1));
+        Query query = new Query(Criteria.where("_id").gte(first.toString()).lte(last.toString()))
+                .with(Sort.by(Sort.Direction.ASC, "_id"));
+        List<TransactionModel> transactions = new ArrayList<>();
+        for (ArchivedMonthModel archivedMonth : mongoTemplate.find(query, ArchivedMonthModel.class)) {
+            transactions.addAll(segment(archivedMonth).find(fromMillis, toMillis));
+        }
+        return transactions;
+    }
+
+    private TransactionSegment segment(ArchivedMonthModel archivedMonth) {
+        String fileId = archivedMonth.getSegmentFileId();
+        TransactionSegment segment = segments.get(fileId);
+        if (segment != null) {
+            return segment;
+        }
+        Path file = localFile(archivedMonth.getId(), fileId);
+        try {
+            if (!Files.exists(file)) {
+                GridFSFile stored = gridFsTemplate.findOne(new Query(Criteria.where("_id").is(new ObjectId(fileId))));
+                if (stored == null) {
+                    // The month was archived again and its old segment removed after this entry was read
+                    ArchivedMonthModel current = mongoTemplate.findById(archivedMonth.getId(), ArchivedMonthModel.class);
+                    if (current == null || fileId.equals(current.getSegmentFileId())) {
+                        throw new IllegalStateException("Archive segment " + fileId + " of " + archivedMonth.getId() + " is missing");
+                    }
+                    return segment(current);
+                }
+                Path download = Files.createTempFile(directory, file.getFileName().toString(), ".download");
+                try (InputStream in = gridFsTemplate.getResource(stored).getInputStream()) {
+                    Files.copy(in, download, StandardCopyOption.REPLACE_EXISTING);
+                }
+                Files.move(download, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            segment = TransactionSegment.open(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        TransactionSegment existing = segments.putIfAbsent(fileId, segment);
+        return existing != null ? existing : segment;
+    }
+
+    private Path localFile(String month, String fileId) {
+        return directory.resolve(SEGMENT_PREFIX + month + "-" + fileId + SEGMENT_SUFFIX);
+    }
+
+    private static LocalDateTime fromMillisToDate(long millis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000), 0, ZoneOffset.UTC);
+    }
+
+    private static long floorMillis(LocalDateTime timestamp) {
+        return TransactionSegment.toMillis(timestamp);
+    }
+
+    private static long ceilMillis(LocalDateTime timestamp) {
+        return TransactionSegment.toMillis(timestamp) + (timestamp.getNano() % 1_000_000 == 0 ? 0 : 1);
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.kirana.Repository;
+
+import com.example.kirana.Model.TransactionModel;
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.ReadPreference;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.connection.ClusterSettings;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.autoconfigure.mongo.MongoProperties;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read-only access to transactions for reports, kept off the primary.
+ *
+ * <p>Report scans use their own MongoClient with a {@code secondaryPreferred} read preference,
+ * a bounded staleness and a separate connection pool, so a yearly report neither competes with
+ * {@link TransactionRepository#save} on the primary nor takes connections from the write pool.
+ * The client is private to this repository so the application's default MongoTemplate, which
+ * handles every write, stays on the primary.</p>
+ */
+@Repository
+public class TransactionReportRepository {
+    private static final Logger log = LoggerFactory.getLogger(TransactionReportRepository.class);
+
+    private final MongoClient mongoClient;
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Creates the report client with the same connection settings Boot uses for the main client
+     * (uri or host/port, replica set name and credentials), unless {@code kirana.report.mongodb.uri}
+     * points the reports somewhere else.
+     */
+    @Autowired
+    public TransactionReportRepository(ObjectProvider<MongoClientSettingsBuilderCustomizer> customizers,
+                                       MongoProperties mongoProperties, MongoConverter mongoConverter,
+                                       @Value("${kirana.report.mongodb.uri:}") String uri,
+                                       @Value("${kirana.report.max-staleness-seconds:90}") long maxStalenessSeconds,
+                                       @Value("${kirana.report.pool.max-size:10}") int maxPoolSize,
+                                       @Value("${kirana.report.pool.max-wait-ms:2000}") long maxWaitMs) {
+        this(baseSettings(customizers, uri), mongoProperties.getMongoClientDatabase(),
+                mongoConverter, maxStalenessSeconds, maxPoolSize, maxWaitMs);
+    }
+
+    public TransactionReportRepository(ConnectionString connectionString, String database, MongoConverter mongoConverter,
+                                       long maxStalenessSeconds, int maxPoolSize, long maxWaitMs) {
+        this(MongoClientSettings.builder().applyConnectionString(connectionString), database, mongoConverter,
+                maxStalenessSeconds, maxPoolSize, maxWaitMs);
+    }
+
+    private TransactionReportRepository(MongoClientSettings.Builder baseSettings, String database, MongoConverter mongoConverter,
+                                        long maxStalenessSeconds, int maxPoolSize, long maxWaitMs) {
+        MongoClientSettings settings = baseSettings
+                .readPreference(ReadPreference.secondaryPreferred(maxStalenessSeconds, TimeUnit.SECONDS))
+                .applyToConnectionPoolSettings(pool -> pool
+                        .maxSize(maxPoolSize)
+                        .maxWaitTime(maxWaitMs, TimeUnit.MILLISECONDS))
+                .build();
+        ClusterSettings cluster = settings.getClusterSettings();
+        if (cluster.getSrvHost() == null && cluster.getHosts().size() == 1 && cluster.getRequiredReplicaSetName() == null) {
+            // The driver connects directly to a single host without a replica set name, so there are no secondaries to use
+            log.warn("Report reads go to the single server {}; set spring.data.mongodb.replica-set-name or "
+                    + "kirana.report.mongodb.uri to serve them from secondaries", cluster.getHosts().get(0));
+        }
+        this.mongoClient = MongoClients.create(settings);
+        this.mongoTemplate = new MongoTemplate(new SimpleMongoClientDatabaseFactory(mongoClient, database), mongoConverter);
+    }
+
+    private static MongoClientSettings.Builder baseSettings(ObjectProvider<MongoClientSettingsBuilderCustomizer> customizers, String uri) {
+        MongoClientSettings.Builder builder = MongoClientSettings.builder();
+        customizers.orderedStream().forEach(customizer -> customizer.customize(builder));
+        if (!uri.isEmpty()) {
+            builder.applyConnectionString(new ConnectionString(uri));
+        }
+        return builder;
+    }
+
+    public MongoClient getMongoClient() {
+        return mongoClient;
+    }
+
+    public MongoTemplate getMongoTemplate() {
+        return mongoTemplate;
+    }
+
+    /**
+     * Finds transactions made strictly after the start and strictly before the end.
+     *
+     * @param startDate The exclusive start of the window.
+     * @param endDate   The exclusive end of the window.
+     * @return The transactions of the window.
+     */
+    public List<TransactionModel> findByTimestampBetween(LocalDateTime startDate, LocalDateTime endDate) {
+        return mongoTemplate.find(Query.query(Criteria.where("timestamp").gt(startDate).lt(endDate)), TransactionModel.class);
+    }
+
+    /**
+     * Finds transactions made on or after the start and strictly before the end.
+     *
+     * @param startDate The inclusive start of the window.
+     * @param endDate   The exclusive end of the window.
+     * @return The transactions of the window.
+     */
+    public List<TransactionModel> findByTimestampGreaterThanEqualAndTimestampLessThan(LocalDateTime startDate, LocalDateTime endDate) {
+        return mongoTemplate.find(Query.query(Criteria.where("timestamp").gte(startDate).lt(endDate)), TransactionModel.class);
+    }
+
+    @PreDestroy
+    public void close() {
+        mongoClient.close();
+    }
+}
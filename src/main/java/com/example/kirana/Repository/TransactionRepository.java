@@ -37,4 +37,19 @@ public interface TransactionRepository extends MongoRepository<TransactionModel,
      */
 
     List<TransactionModel> findByTimestampBetween(LocalDateTime startDate, LocalDateTime endDate);
+    /**
+     * Finds transactions made on or after the start and strictly before the end.
+     * Used for day-aligned windows, where a transaction at midnight belongs to the new day.
+     *
+     * @param startDate The inclusive start of the window.
+     * @param endDate   The exclusive end of the window.
+     * @return A list of transactions made within the window.
+     */
+    List<TransactionModel> findByTimestampGreaterThanEqualAndTimestampLessThan(LocalDateTime startDate, LocalDateTime endDate);
+    /**
+     * Finds the oldest transaction still stored in the collection.
+     *
+     * @return The transaction with the earliest timestamp, or null if the collection is empty.
+     */
+    TransactionModel findFirstByOrderByTimestampAsc();
 }
\ No newline at end of file
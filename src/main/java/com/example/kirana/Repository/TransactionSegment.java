@@ -0,0 +1,274 @@
+package com.example.kirana.Repository;
+
+import com.example.kirana.Model.TransactionModel;
+import org.bson.types.ObjectId;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A read-only, memory-mapped file holding the archived transactions of one month.
+ *
+ * <p>The file is columnar with fixed-width columns (33 bytes per row instead of a full BSON
+ * document), so rows can be read straight from the mapping without decoding the whole file:</p>
+ * <pre>
+ *   int     magic ("KTX2"; "KTX1" files lack the overflow section)
+ *   int     row count
+ *   long    min timestamp, long max timestamp (epoch millis)
+ *   int[32] day index: first row of each day of the month, then the row count
+ *   long[n] timestamps (sorted), long[n] unscaled amounts, byte[n] amount scales,
+ *   byte[n] types, byte[3n] currencies, byte[12n] ids
+ *   int     overflow count, then per row: int row, int length, byte[length] unscaled amount
+ * </pre>
+ * Timestamps are stored with millisecond precision, the same precision MongoDB keeps. Amounts
+ * are stored exactly: an unscaled value that does not fit a long is marked in the amount column
+ * and kept as big-endian two's-complement bytes in the overflow section.
+ */
+public final class TransactionSegment {
+    private static final int MAGIC = 0x4B545832;
+    private static final int MAGIC_WITHOUT_OVERFLOW = 0x4B545831;
+    // Marks an amount whose unscaled value lives in the overflow section
+    private static final long OVERFLOW = Long.MIN_VALUE;
+    private static final int DAY_INDEX_SIZE = 32;
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 8 + DAY_INDEX_SIZE * 4;
+    private static final int ROW_SIZE = 8 + 8 + 1 + 1 + 3 + 12;
+
+    private final ByteBuffer buffer;
+    private final int rowCount;
+    private final long minTimestamp;
+    private final long maxTimestamp;
+    private final Map<Integer, BigInteger> overflow = new HashMap<>();
+
+    private TransactionSegment(ByteBuffer buffer) {
+        this.buffer = buffer;
+        int magic = buffer.getInt(0);
+        if (magic != MAGIC && magic != MAGIC_WITHOUT_OVERFLOW) {
+            throw new IllegalArgumentException("Not a transaction segment file");
+        }
+        this.rowCount = buffer.getInt(4);
+        this.minTimestamp = buffer.getLong(8);
+        this.maxTimestamp = buffer.getLong(16);
+        if (magic == MAGIC) {
+            int position = HEADER_SIZE + rowCount * ROW_SIZE;
+            int count = buffer.getInt(position);
+            position += 4;
+            for (int i = 0; i < count; i++) {
+                int row = buffer.getInt(position);
+                byte[] unscaled = new byte[buffer.getInt(position + 4)];
+                buffer.get(position + 8, unscaled);
+                overflow.put(row, new BigInteger(unscaled));
+                position += 8 + unscaled.length;
+            }
+        }
+    }
+
+    /**
+     * Maps an existing segment file into memory.
+     *
+     * @param file The segment file.
+     * @return The opened segment.
+     * @throws IOException if the file cannot be read.
+     */
+    public static TransactionSegment open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new TransactionSegment(buffer);
+        }
+    }
+
+    /**
+     * Writes the transactions of one month to a segment file. The file is written next to the
+     * target and moved into place, so readers never see a partially written segment.
+     *
+     * @param file         The segment file to create or replace.
+     * @param transactions The transactions of a single month, in any order.
+     * @throws IOException if the file cannot be written.
+     */
+    public static void write(Path file, List<TransactionModel> transactions) throws IOException {
+        List<TransactionModel> rows = new ArrayList<>(transactions);
+        rows.sort(Comparator.comparing(TransactionModel::getTimestamp));
+        int n = rows.size();
+
+        List<BigDecimal> amounts = new ArrayList<>(n);
+        int overflowSize = 4;
+        for (TransactionModel transaction : rows) {
+            BigDecimal amount = checkAmount(transaction.getAmount());
+            amounts.add(amount);
+            if (overflows(amount)) {
+                overflowSize += 8 + amount.unscaledValue().toByteArray().length;
+            }
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + n * ROW_SIZE + overflowSize);
+        buffer.putInt(MAGIC);
+        buffer.putInt(n);
+        buffer.putLong(n == 0 ? 0 : toMillis(rows.get(0).getTimestamp()));
+        buffer.putLong(n == 0 ? 0 : toMillis(rows.get(n - 1).getTimestamp()));
+        int row = 0;
+        for (int day = 1; day <= DAY_INDEX_SIZE; day++) {
+            while (row < n && rows.get(row).getTimestamp().getDayOfMonth() < day) {
+                row++;
+            }
+            buffer.putInt(row);
+        }
+
+        for (TransactionModel transaction : rows) {
+            buffer.putLong(toMillis(transaction.getTimestamp()));
+        }
+        for (BigDecimal amount : amounts) {
+            buffer.putLong(overflows(amount) ? OVERFLOW : amount.unscaledValue().longValueExact());
+        }
+        for (BigDecimal amount : amounts) {
+            buffer.put((byte) amount.scale());
+        }
+        for (TransactionModel transaction : rows) {
+            buffer.put((byte) transaction.getType().ordinal());
+        }
+        for (TransactionModel transaction : rows) {
+            byte[] currency = transaction.getCurrency().getBytes(StandardCharsets.US_ASCII);
+            if (currency.length != 3) {
+                throw new IllegalArgumentException("Invalid currency code: " + transaction.getCurrency());
+            }
+            buffer.put(currency);
+        }
+        for (TransactionModel transaction : rows) {
+            buffer.put(new ObjectId(transaction.getId()).toByteArray());
+        }
+        int overflowCount = 0;
+        for (BigDecimal amount : amounts) {
+            if (overflows(amount)) {
+                overflowCount++;
+            }
+        }
+        buffer.putInt(overflowCount);
+        for (int i = 0; i < n; i++) {
+            if (overflows(amounts.get(i))) {
+                byte[] unscaled = amounts.get(i).unscaledValue().toByteArray();
+                buffer.putInt(i);
+                buffer.putInt(unscaled.length);
+                buffer.put(unscaled);
+            }
+        }
+
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(tmp, buffer.array());
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public int size() {
+        return rowCount;
+    }
+
+    /**
+     * Reads every row of the segment.
+     *
+     * @return All archived transactions of the month, ordered by timestamp.
+     */
+    public List<TransactionModel> readAll() {
+        return read(0, rowCount);
+    }
+
+    /**
+     * Reads the rows with a timestamp in the given window.
+     *
+     * @param fromMillis The inclusive start of the window, in epoch millis.
+     * @param toMillis   The exclusive end of the window, in epoch millis.
+     * @return The matching transactions, ordered by timestamp.
+     */
+    public List<TransactionModel> find(long fromMillis, long toMillis) {
+        if (rowCount == 0 || fromMillis > maxTimestamp || toMillis <= minTimestamp) {
+            return List.of();
+        }
+        return read(lowerBound(fromMillis), lowerBound(toMillis));
+    }
+
+    static long toMillis(LocalDateTime timestamp) {
+        return timestamp.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static LocalDateTime fromMillis(long millis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000),
+                (int) Math.floorMod(millis, 1000) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    // Amounts are never rounded; a scale outside the byte column fails the write instead
+    private static BigDecimal checkAmount(BigDecimal amount) {
+        if (amount.scale() < Byte.MIN_VALUE || amount.scale() > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Amount out of range: " + amount);
+        }
+        return amount;
+    }
+
+    private static boolean overflows(BigDecimal amount) {
+        BigInteger unscaled = amount.unscaledValue();
+        return unscaled.bitLength() > 63 || unscaled.longValue() == OVERFLOW;
+    }
+
+    // Index of the first row with a timestamp at or after the given millis
+    private int lowerBound(long millis) {
+        int lo = 0;
+        int hi = rowCount;
+        if (millis > minTimestamp && millis <= maxTimestamp) {
+            // Narrow the search to the day of the timestamp using the day index
+            int day = fromMillis(millis).getDayOfMonth();
+            lo = buffer.getInt(24 + (day - 1) * 4);
+            hi = buffer.getInt(24 + day * 4);
+        }
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (timestampAt(mid) < millis) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private long timestampAt(int row) {
+        return buffer.getLong(HEADER_SIZE + row * 8);
+    }
+
+    private List<TransactionModel> read(int from, int to) {
+        int amountBase = HEADER_SIZE + rowCount * 8;
+        int scaleBase = amountBase + rowCount * 8;
+        int typeBase = scaleBase + rowCount;
+        int currencyBase = typeBase + rowCount;
+        int idBase = currencyBase + rowCount * 3;
+        TransactionModel.TransactionType[] types = TransactionModel.TransactionType.values();
+
+        List<TransactionModel> transactions = new ArrayList<>(to - from);
+        byte[] currency = new byte[3];
+        byte[] id = new byte[12];
+        for (int row = from; row < to; row++) {
+            TransactionModel transaction = new TransactionModel();
+            transaction.setTimestamp(fromMillis(timestampAt(row)));
+            long unscaled = buffer.getLong(amountBase + row * 8);
+            transaction.setAmount(new BigDecimal(unscaled == OVERFLOW && overflow.containsKey(row) ? overflow.get(row) : BigInteger.valueOf(unscaled),
+                    buffer.get(scaleBase + row)));
+            transaction.setType(types[buffer.get(typeBase + row)]);
+            buffer.get(currencyBase + row * 3, currency);
+            transaction.setCurrency(new String(currency, StandardCharsets.US_ASCII));
+            buffer.get(idBase + row * 12, id);
+            transaction.setId(new ObjectId(id).toHexString());
+            transactions.add(transaction);
+        }
+        return transactions;
+    }
+}
@@ -2,11 +2,17 @@ package com.example.kirana.Repository;
 
 import com.example.kirana.Model.UserModel;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.stream.Stream;
 
 
 @Repository
 public interface UserRepository extends MongoRepository<UserModel, String> {
     UserModel findByEmail(String email);
-}
\ No newline at end of file
+
+    // Streams only the email of every user, used to warm the in-memory email filter
+    @Query(value = "{}", fields = "{ 'email' : 1, '_id' : 0 }")
+    Stream<UserModel> streamAllEmails();
+}
@@ -0,0 +1,143 @@
+package com.example.kirana.Service;
+
+import com.example.kirana.Model.DailyTotals;
+import com.example.kirana.Model.TransactionModel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Caches credit/debit totals per calendar day so that reports spanning many days
+ * only have to scan the partial days at the edges of their window.
+ *
+ * <p>Entries are loaded lazily and dropped by {@link TransactionChangeListener}
+ * whenever a transaction of that day changes on any instance. Nothing is cached while that
+ * listener is not running, since changes would then go unnoticed; reports then read the whole
+ * range with one query, as they would without the cache.</p>
+ *
+ * <p>Report reads may be served by a secondary that lags by up to
+ * {@code kirana.report.max-staleness-seconds}, so totals of a day that changed more recently
+ * than that are returned but not cached; they might not include the change yet.</p>
+ */
+@Service
+public class DailyRollupCache {
+    @Autowired
+    private TransactionLookupService transactionLookupService;
+
+    @Value("${kirana.report.max-staleness-seconds:90}")
+    private long maxStalenessSeconds;
+
+    private final Map<LocalDate, DailyTotals> rollups = new ConcurrentHashMap<>();
+    private final Map<LocalDate, Long> lastChanges = new ConcurrentHashMap<>();
+    private volatile long lastChangeOfAnyDay;
+    private volatile boolean invalidationActive;
+
+    /**
+     * Returns the totals of every day in a range. Days missing from the cache are loaded with a
+     * single range query that is split by day, so a long report never runs one query per day.
+     *
+     * @param from The first day of the range.
+     * @param to   The day after the last day of the range.
+     * @return The credit and debit totals of each day, in day order.
+     */
+    public List<DailyTotals> getTotals(LocalDate from, LocalDate to) {
+        boolean active = invalidationActive;
+        Map<LocalDate, DailyTotals> totals = new HashMap<>();
+        LocalDate firstMissing = null;
+        LocalDate lastMissing = null;
+        for (LocalDate day = from; day.isBefore(to); day = day.plusDays(1)) {
+            DailyTotals cached = active ? rollups.get(day) : null;
+            if (cached != null) {
+                totals.put(day, cached);
+            } else {
+                firstMissing = firstMissing == null ? day : firstMissing;
+                lastMissing = day;
+            }
+        }
+
+        if (firstMissing != null) {
+            Map<LocalDate, Long> changesBefore = new HashMap<>();
+            for (LocalDate day = firstMissing; !day.isAfter(lastMissing); day = day.plusDays(1)) {
+                Long change = lastChanges.get(day);
+                if (change != null) {
+                    changesBefore.put(day, change);
+                }
+            }
+            long changeOfAnyDayBefore = lastChangeOfAnyDay;
+
+            Map<LocalDate, List<TransactionModel>> byDay = transactionLookupService
+                    .findByTimestampGreaterThanEqualAndTimestampLessThan(firstMissing.atStartOfDay(), lastMissing.plusDays(1).atStartOfDay())
+                    .stream()
+                    .collect(Collectors.groupingBy(transaction -> transaction.getTimestamp().toLocalDate()));
+            for (LocalDate day = firstMissing; !day.isAfter(lastMissing); day = day.plusDays(1)) {
+                if (!totals.containsKey(day)) {
+                    DailyTotals loaded = DailyTotals.of(day, byDay.getOrDefault(day, List.of()));
+                    totals.put(day, loaded);
+                    if (active) {
+                        cacheIfSettled(day, loaded, changesBefore.get(day), changeOfAnyDayBefore);
+                    }
+                }
+            }
+        }
+
+        List<DailyTotals> ordered = new ArrayList<>();
+        for (LocalDate day = from; day.isBefore(to); day = day.plusDays(1)) {
+            ordered.add(totals.get(day));
+        }
+        return ordered;
+    }
+
+    /**
+     * Drops the cached totals of a day so the next report reloads them.
+     *
+     * @param day The day whose totals are stale.
+     */
+    public void invalidate(LocalDate day) {
+        lastChanges.put(day, System.nanoTime());
+        rollups.remove(day);
+    }
+
+    /**
+     * Drops every cached day. Used when a change cannot be attributed to a single day,
+     * e.g. a delete without a pre-image.
+     */
+    public void invalidateAll() {
+        lastChangeOfAnyDay = System.nanoTime();
+        rollups.clear();
+    }
+
+    /**
+     * Turns caching on or off depending on whether changes are being received. Turning it
+     * off drops every cached day, since changes made from now on would be missed.
+     *
+     * @param active Whether the change stream subscription is running.
+     */
+    public void setInvalidationActive(boolean active) {
+        invalidationActive = active;
+        if (!active) {
+            invalidateAll();
+        }
+    }
+
+    // Only caches if nothing changed while loading and the last change has reached every secondary
+    private void cacheIfSettled(LocalDate day, DailyTotals totals, Long changeBefore, long changeOfAnyDayBefore) {
+        long settled = System.nanoTime() - TimeUnit.SECONDS.toNanos(maxStalenessSeconds);
+        boolean unchanged = Objects.equals(changeBefore, lastChanges.get(day)) && changeOfAnyDayBefore == lastChangeOfAnyDay
+                && invalidationActive;
+        boolean dayChangeSettled = changeBefore == null || changeBefore - settled < 0;
+        boolean anyChangeSettled = changeOfAnyDayBefore == 0 || changeOfAnyDayBefore - settled < 0;
+        if (unchanged && dayChangeSettled && anyChangeSettled) {
+            rollups.putIfAbsent(day, totals);
+        }
+    }
+}
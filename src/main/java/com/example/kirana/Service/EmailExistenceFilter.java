@@ -0,0 +1,66 @@
+package com.example.kirana.Service;
+
+import com.example.kirana.Model.UserModel;
+import com.example.kirana.Repository.UserRepository;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+/**
+ * In-memory Bloom filter of registered emails.
+ *
+ * <p>A negative answer means the email is almost certainly free on this instance, so registration
+ * can skip the database lookup. Users registered by other instances are not in the filter; the unique
+ * index on {@code users.email} stays the source of truth and catches those duplicates on insert.</p>
+ */
+@Service
+public class EmailExistenceFilter {
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${kirana.users.email-filter.expected-users:100000}")
+    private int expectedUsers;
+
+    private volatile BloomFilter<CharSequence> filter;
+
+    @PostConstruct
+    public void load() {
+        BloomFilter<CharSequence> loaded = BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8), expectedUsers, 0.01);
+        try (Stream<UserModel> users = userRepository.streamAllEmails()) {
+            users.map(UserModel::getEmail)
+                    .filter(email -> email != null)
+                    .forEach(loaded::put);
+        }
+        filter = loaded;
+    }
+
+    /**
+     * Checks whether an email might already be registered.
+     *
+     * @param email The email to check.
+     * @return false if the email is definitely not known to this instance, true otherwise.
+     */
+    public boolean mightExist(String email) {
+        BloomFilter<CharSequence> current = filter;
+        // Until the filter is loaded every email has to be checked against the database
+        return current == null || current.mightContain(email);
+    }
+
+    /**
+     * Records a registered email.
+     *
+     * @param email The email that is now in use.
+     */
+    public void add(String email) {
+        BloomFilter<CharSequence> current = filter;
+        if (current != null) {
+            current.put(email);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.kirana.Service;
+
+import com.example.kirana.Model.DailyTotals;
+import com.example.kirana.Model.TransactionModel;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Pushes live credit/debit/net updates to connected store dashboards over server-sent events.
+ *
+ * <p>A new subscriber first receives a "snapshot" event with today's totals and then one
+ * "transaction" event per new transaction carrying its contribution to the totals.</p>
+ *
+ * <p>A subscriber is registered before its snapshot is read, so no insert can fall between the
+ * two. Inserts published while the snapshot is being read are held back and sent after it,
+ * unless the snapshot already contains them.</p>
+ *
+ * <p>{@link #publish} runs on the change-stream thread and never writes to a client: updates go
+ * into a bounded queue per subscriber that a sender thread drains. A dashboard that falls
+ * {@value #MAX_QUEUED_UPDATES} updates behind is disconnected, so one stalled client cannot
+ * delay rollup invalidation or the other dashboards.</p>
+ */
+@Service
+public class LiveReportPublisher {
+    private static final Logger log = LoggerFactory.getLogger(LiveReportPublisher.class);
+    private static final long EMITTER_TIMEOUT_MS = 30 * 60 * 1000L;
+    private static final int MAX_QUEUED_UPDATES = 1000;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    // A blocked write only holds the thread of its own subscriber
+    private final ExecutorService senders = Executors.newCachedThreadPool();
+
+    /**
+     * Registers a new dashboard connection.
+     *
+     * @param day          The day of the snapshot, normally today.
+     * @param transactions Reads the transactions of that day for the starting totals.
+     * @return The emitter to return from the controller.
+     */
+    public SseEmitter subscribe(LocalDate day, Supplier<List<TransactionModel>> transactions) {
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MS);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+
+        try {
+            subscriber.start(day, transactions.get());
+        } catch (IOException | RuntimeException e) {
+            subscriber.close(e);
+        }
+        return emitter;
+    }
+
+    /**
+     * Queues the contribution of a newly inserted transaction for every connected dashboard.
+     * Never blocks on a client.
+     *
+     * @param transaction The inserted transaction.
+     */
+    public void publish(TransactionModel transaction) {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(transaction);
+        }
+    }
+
+    @PreDestroy
+    public void stopSending() {
+        senders.shutdownNow();
+    }
+
+    private static Map<String, Object> update(TransactionModel transaction) {
+        boolean credit = transaction.getType() == TransactionModel.TransactionType.CREDIT;
+        return Map.of(
+                "id", transaction.getId(),
+                "timestamp", transaction.getTimestamp().toString(),
+                "credit", credit ? transaction.getAmount() : BigDecimal.ZERO,
+                "debit", credit ? BigDecimal.ZERO : transaction.getAmount(),
+                "net", credit ? transaction.getAmount() : transaction.getAmount().negate());
+    }
+
+    private class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<TransactionModel> queue = new ArrayBlockingQueue<>(MAX_QUEUED_UPDATES);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        // Set once the snapshot is sent; its ids are skipped, since their events may still arrive afterwards
+        private volatile Set<String> inSnapshot;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void start(LocalDate day, List<TransactionModel> transactions) throws IOException {
+            DailyTotals totals = DailyTotals.of(day, transactions);
+            emitter.send(SseEmitter.event().name("snapshot").data(Map.of(
+                    "day", day.toString(),
+                    "totalCredits", totals.getTotalCredits(),
+                    "totalDebits", totals.getTotalDebits(),
+                    "netFlow", totals.getNetFlow())));
+
+            Set<String> ids = new HashSet<>();
+            transactions.forEach(transaction -> ids.add(transaction.getId()));
+            inSnapshot = ids;
+            scheduleDrain();
+        }
+
+        void offer(TransactionModel transaction) {
+            if (!queue.offer(transaction)) {
+                log.info("Disconnecting a live report subscriber that fell {} updates behind", MAX_QUEUED_UPDATES);
+                close(null);
+                return;
+            }
+            scheduleDrain();
+        }
+
+        void close(Throwable error) {
+            subscribers.remove(this);
+            queue.clear();
+            // Completing waits for a write in progress, so a stalled client is completed on a sender thread
+            Runnable complete = error != null ? () -> emitter.completeWithError(error) : emitter::complete;
+            try {
+                senders.execute(complete);
+            } catch (RejectedExecutionException e) {
+                complete.run();
+            }
+        }
+
+        private void scheduleDrain() {
+            if (inSnapshot != null && !queue.isEmpty() && draining.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    draining.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                TransactionModel transaction;
+                while ((transaction = queue.poll()) != null) {
+                    if (!inSnapshot.contains(transaction.getId())) {
+                        emitter.send(SseEmitter.event().name("transaction").data(update(transaction)));
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                close(e);
+            } finally {
+                draining.set(false);
+            }
+            // An update queued after the last poll but before the flag was cleared would otherwise wait for the next one
+            scheduleDrain();
+        }
+    }
+}
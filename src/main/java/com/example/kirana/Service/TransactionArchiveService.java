@@ -0,0 +1,131 @@
+package com.example.kirana.Service;
+
+import com.example.kirana.Model.TransactionModel;
+import com.example.kirana.Repository.JobLockRepository;
+import com.example.kirana.Repository.TransactionArchiveRepository;
+import com.example.kirana.Repository.TransactionRepository;
+import com.google.common.collect.Lists;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Moves closed months of transactions out of MongoDB into the shared archive, so the
+ * {@code transaction} collection and its indexes only hold recent data.
+ *
+ * <p>A month is archived once it is older than {@code kirana.archive.min-age-months}.
+ * Months are processed oldest first; each one is published to the archive before its
+ * rows are deleted from MongoDB, so a failure never loses transactions. The job runs on
+ * every instance, but a lease in MongoDB lets only one of them do the work.</p>
+ */
+@Service
+public class TransactionArchiveService {
+    private static final Logger log = LoggerFactory.getLogger(TransactionArchiveService.class);
+    private static final String JOB_NAME = "transaction-archive";
+    // Keeps each delete's $in list well below the 16 MB command limit
+    private static final int DELETE_BATCH_SIZE = 10_000;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TransactionArchiveRepository transactionArchiveRepository;
+
+    @Autowired
+    private JobLockRepository jobLockRepository;
+
+    @Value("${kirana.archive.min-age-months:12}")
+    private int minAgeMonths;
+
+    @Value("${kirana.archive.lease-minutes:30}")
+    private long leaseMinutes;
+
+    private final String instanceId = UUID.randomUUID().toString();
+
+    /**
+     * Archives every month older than the configured age. Runs nightly by default; does nothing
+     * while another instance holds the archive lease.
+     *
+     * @return The number of transactions moved to the archive.
+     * @throws IOException if a segment file cannot be written.
+     */
+    @Scheduled(cron = "${kirana.archive.cron:0 30 2 * * *}")
+    public synchronized long archiveClosedMonths() throws IOException {
+        Duration lease = Duration.ofMinutes(leaseMinutes);
+        if (!jobLockRepository.tryAcquire(JOB_NAME, instanceId, lease)) {
+            log.info("Transaction archiving is running on another instance");
+            return 0;
+        }
+        try {
+            transactionArchiveRepository.publishLocalSegments();
+
+            YearMonth cutoff = YearMonth.now().minusMonths(minAgeMonths);
+            long archived = 0;
+            TransactionModel oldest = transactionRepository.findFirstByOrderByTimestampAsc();
+            while (oldest != null && YearMonth.from(oldest.getTimestamp()).isBefore(cutoff)) {
+                // Extend the lease per month, and stop if another instance took it over meanwhile
+                if (!jobLockRepository.tryAcquire(JOB_NAME, instanceId, lease)) {
+                    log.warn("Lost the transaction archive lease, stopping after {} transactions", archived);
+                    break;
+                }
+                YearMonth month = YearMonth.from(oldest.getTimestamp());
+                LocalDateTime start = month.atDay(1).atStartOfDay();
+                LocalDateTime end = month.plusMonths(1).atDay(1).atStartOfDay();
+
+                // Late rows of an already archived month are merged into its segment. Rows left behind
+                // by a run that failed between publishing and deleting are already archived, so merge by id.
+                Map<String, TransactionModel> transactions = new LinkedHashMap<>();
+                transactionArchiveRepository.findByMonth(month).forEach(t -> transactions.put(t.getId(), t));
+                List<TransactionModel> live = transactionRepository.findByTimestampGreaterThanEqualAndTimestampLessThan(start, end);
+                live.forEach(t -> transactions.put(t.getId(), t));
+
+                transactionArchiveRepository.save(month, new ArrayList<>(transactions.values()));
+                // Only delete what was archived; rows written into the month since the read stay for the next pass
+                List<String> ids = live.stream().map(TransactionModel::getId).toList();
+                for (List<String> batch : Lists.partition(ids, DELETE_BATCH_SIZE)) {
+                    transactionRepository.deleteAllById(batch);
+                }
+                archived += live.size();
+                log.info("Archived {} transactions of {}", live.size(), month);
+
+                oldest = transactionRepository.findFirstByOrderByTimestampAsc();
+            }
+            return archived;
+        } finally {
+            jobLockRepository.release(JOB_NAME, instanceId);
+        }
+    }
+
+    /**
+     * Publishes segments that an earlier version kept only in this instance's archive directory,
+     * so the other instances can read those months too. Checked at startup and then periodically
+     * until it succeeds, since another instance may hold the archive lease.
+     *
+     * @throws IOException if a segment cannot be read or written.
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${kirana.archive.publish-check-interval-ms:600000}")
+    public synchronized void publishLocalSegments() throws IOException {
+        if (!transactionArchiveRepository.hasLocalSegments()
+                || !jobLockRepository.tryAcquire(JOB_NAME, instanceId, Duration.ofMinutes(leaseMinutes))) {
+            return;
+        }
+        try {
+            log.info("Published {} locally archived months", transactionArchiveRepository.publishLocalSegments());
+        } finally {
+            jobLockRepository.release(JOB_NAME, instanceId);
+        }
+    }
+}
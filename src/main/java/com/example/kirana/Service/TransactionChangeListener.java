@@ -0,0 +1,130 @@
+package com.example.kirana.Service;
+
+import com.example.kirana.Model.TransactionModel;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import jakarta.annotation.PostConstruct;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.messaging.ChangeStreamRequest;
+import org.springframework.data.mongodb.core.messaging.Message;
+import org.springframework.data.mongodb.core.messaging.MessageListenerContainer;
+import org.springframework.data.mongodb.core.messaging.Subscription;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Listens to the change stream of the {@code transaction} collection so that writes made by
+ * any instance keep the local report rollups fresh and reach the live dashboards.
+ *
+ * <p>The rollup cache is only used while the subscription is active. When the cursor fails
+ * (or change streams are unavailable, e.g. on a standalone server) the cache is cleared and
+ * bypassed, and the subscription is restarted from the last seen resume token. Restarts that
+ * keep failing are retried at doubling intervals and only the first failure is logged with
+ * its stack trace.</p>
+ */
+@Service
+public class TransactionChangeListener {
+    private static final Logger log = LoggerFactory.getLogger(TransactionChangeListener.class);
+
+    @Autowired
+    private MessageListenerContainer messageListenerContainer;
+
+    @Autowired
+    private DailyRollupCache dailyRollupCache;
+
+    @Autowired
+    private LiveReportPublisher liveReportPublisher;
+
+    @Value("${kirana.change-stream.check-interval-ms:5000}")
+    private long checkIntervalMs;
+
+    @Value("${kirana.change-stream.max-backoff-ms:300000}")
+    private long maxBackoffMs;
+
+    private volatile Subscription subscription;
+    private volatile BsonDocument resumeToken;
+    private volatile BsonDocument resumedFrom;
+    private final AtomicBoolean failureLogged = new AtomicBoolean();
+    // Only touched by the scheduler thread
+    private int failedRestarts;
+    private long nextRestartNanos = System.nanoTime();
+
+    @PostConstruct
+    public void subscribe() {
+        ChangeStreamRequest.ChangeStreamRequestBuilder<TransactionModel> builder =
+                ChangeStreamRequest.<TransactionModel>builder(this::onChange).collection("transaction");
+        BsonDocument token = resumeToken;
+        resumedFrom = token;
+        if (token != null) {
+            builder.resumeAfter(token);
+        }
+        subscription = messageListenerContainer.register(builder.build(), TransactionModel.class, this::onError);
+    }
+
+    /**
+     * Enables the rollup cache while the subscription is running and restarts it when it is not.
+     */
+    @Scheduled(fixedDelayString = "${kirana.change-stream.check-interval-ms:5000}")
+    public void checkSubscription() {
+        Subscription current = subscription;
+        if (current != null && current.isActive()) {
+            dailyRollupCache.setInvalidationActive(true);
+            failedRestarts = 0;
+            failureLogged.set(false);
+            return;
+        }
+        dailyRollupCache.setInvalidationActive(false);
+        if (System.nanoTime() - nextRestartNanos < 0) {
+            return;
+        }
+        if (current != null) {
+            messageListenerContainer.remove(current);
+        }
+        subscribe();
+        long backoffMs = Math.min(maxBackoffMs, checkIntervalMs << Math.min(failedRestarts, 16));
+        nextRestartNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoffMs);
+        failedRestarts++;
+    }
+
+    /**
+     * Handles a single change event. Inserts only affect the day of the new transaction;
+     * updates, replaces and deletes may have moved or removed rows of an unknown day,
+     * so every cached day is dropped.
+     *
+     * @param message The change event with the converted transaction, if any.
+     */
+    public void onChange(Message<ChangeStreamDocument<Document>, TransactionModel> message) {
+        OperationType operationType = message.getRaw().getOperationType();
+        TransactionModel transaction = message.getBody();
+
+        if (operationType == OperationType.INSERT && transaction != null && transaction.getTimestamp() != null) {
+            dailyRollupCache.invalidate(transaction.getTimestamp().toLocalDate());
+            liveReportPublisher.publish(transaction);
+        } else {
+            dailyRollupCache.invalidateAll();
+        }
+        resumeToken = message.getRaw().getResumeToken();
+    }
+
+    // The container cancels the task after a cursor error; the next check restarts it
+    void onError(Throwable error) {
+        if (failureLogged.compareAndSet(false, true)) {
+            log.warn("Transaction change stream failed, report rollups are bypassed until it is restarted", error);
+        } else {
+            log.debug("Transaction change stream failed again: {}", error.toString());
+        }
+        dailyRollupCache.setInvalidationActive(false);
+        if (resumeToken != null && resumeToken == resumedFrom) {
+            // Resuming itself failed, e.g. the token fell off the oplog; start fresh, the cache was cleared anyway
+            resumeToken = null;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.kirana.Service;
+
+import com.example.kirana.Model.TransactionModel;
+import com.example.kirana.Repository.TransactionArchiveRepository;
+import com.example.kirana.Repository.TransactionReportRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BiFunction;
+
+/**
+ * Looks up transactions by time range across the archive and the live MongoDB collection.
+ *
+ * <p>Everything before {@link TransactionArchiveRepository#getArchivedUntil()} is read from the
+ * archive and everything from that instant on from MongoDB, so rows that are archived but not yet
+ * deleted from MongoDB are never counted twice, and a read that overlaps the archive job moving
+ * the watermark is repeated. MongoDB reads go through the
+ * {@link TransactionReportRepository} and may be served by a secondary.</p>
+ */
+@Service
+public class TransactionLookupService {
+    @Autowired
+    private TransactionReportRepository transactionReportRepository;
+
+    @Autowired
+    private TransactionArchiveRepository transactionArchiveRepository;
+
+    /**
+     * Finds transactions made strictly after the start and strictly before the end.
+     *
+     * @param startDate The exclusive start of the window.
+     * @param endDate   The exclusive end of the window.
+     * @return The transactions of the window, archived ones first.
+     */
+    public List<TransactionModel> findByTimestampBetween(LocalDateTime startDate, LocalDateTime endDate) {
+        return find(startDate, endDate, transactionArchiveRepository::findByTimestampBetween,
+                transactionReportRepository::findByTimestampBetween);
+    }
+
+    /**
+     * Finds transactions made on or after the start and strictly before the end.
+     *
+     * @param startDate The inclusive start of the window.
+     * @param endDate   The exclusive end of the window.
+     * @return The transactions of the window, archived ones first.
+     */
+    public List<TransactionModel> findByTimestampGreaterThanEqualAndTimestampLessThan(LocalDateTime startDate, LocalDateTime endDate) {
+        return find(startDate, endDate, transactionArchiveRepository::findByTimestampGreaterThanEqualAndTimestampLessThan,
+                transactionReportRepository::findByTimestampGreaterThanEqualAndTimestampLessThan);
+    }
+
+    private List<TransactionModel> find(LocalDateTime startDate, LocalDateTime endDate,
+                                        BiFunction<LocalDateTime, LocalDateTime, List<TransactionModel>> archived,
+                                        BiFunction<LocalDateTime, LocalDateTime, List<TransactionModel>> live) {
+        LocalDateTime archivedUntil = transactionArchiveRepository.getArchivedUntil();
+        while (true) {
+            List<TransactionModel> transactions;
+            if (archivedUntil == null || !startDate.isBefore(archivedUntil)) {
+                transactions = live.apply(startDate, endDate);
+            } else {
+                transactions = new ArrayList<>(archived.apply(startDate, endDate.isBefore(archivedUntil) ? endDate : archivedUntil));
+                if (endDate.isAfter(archivedUntil)) {
+                    transactions.addAll(transactionReportRepository.findByTimestampGreaterThanEqualAndTimestampLessThan(archivedUntil, endDate));
+                }
+            }
+            // Rows are only deleted after the watermark has moved past them. If it did not move
+            // while MongoDB was read, no row of the window can have been deleted in between.
+            LocalDateTime current = transactionArchiveRepository.getArchivedUntil();
+            if (Objects.equals(archivedUntil, current)) {
+                return transactions;
+            }
+            archivedUntil = current;
+        }
+    }
+}
@@ -2,16 +2,21 @@ package com.example.kirana.Service;
 import com.example.kirana.Utils.RateLimitExceededException;
 import com.google.common.util.concurrent.RateLimiter;
 
+import com.example.kirana.Model.DailyTotals;
 import com.example.kirana.Model.TransactionModel;
 import com.example.kirana.Model.TransactionModel.TransactionType;
 import com.example.kirana.Repository.TransactionRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import com.example.kirana.Utils.InvalidTransactionTypeException;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -28,12 +33,28 @@ public class TransactionService {
 
     @Autowired
     private RestTemplate restTemplate;
+
+    @Autowired
+    private TransactionLookupService transactionLookupService;
+
+    @Autowired
+    private DailyRollupCache dailyRollupCache;
+
+    @Autowired
+    private LiveReportPublisher liveReportPublisher;
+
+    @Autowired
+    private TransactionSketchService transactionSketchService;
 //
     // RateLimiter to control the number of requests to the transaction service (10 requests per second).
     private final RateLimiter rateLimiter = RateLimiter.create(10);
 
     private static final String CURRENCY_CONVERSION_API_URL = "https://api.fxratesapi.com/latest?base={base}&symbols={target}";
 
+    // Overridable so that load tests can point the conversion at a local stub
+    @Value("${kirana.fx.url:" + CURRENCY_CONVERSION_API_URL + "}")
+    private String currencyConversionApiUrl;
+
     /**
      * Adds a new transaction to the system after performing currency conversion and validating the type.
      * This method is rate-limited to 10 requests per second.
@@ -65,7 +86,9 @@ public class TransactionService {
         transaction.setType(transactionType);
 
         transaction.setTimestamp(LocalDateTime.now());
-        return transactionRepository.save(transaction);
+        TransactionModel saved = transactionRepository.save(transaction);
+        transactionSketchService.record(saved, currency);
+        return saved;
     }
 
     /**
@@ -82,7 +105,7 @@ public class TransactionService {
 public BigDecimal convertCurrency(BigDecimal amount, String fromCurrency, String toCurrency) {
 
     RestTemplate restTemplate = new RestTemplate();
-    String apiUrl = CURRENCY_CONVERSION_API_URL.replace("{base}", fromCurrency)
+    String apiUrl = currencyConversionApiUrl.replace("{base}", fromCurrency)
             .replace("{target}", toCurrency);
 
 
@@ -91,11 +114,12 @@ public BigDecimal convertCurrency(BigDecimal amount, String fromCurrency, String
     if (response != null && response.containsKey("rates")) {
         Object ratesObj = response.get("rates");
         if (ratesObj instanceof Map<?, ?>) {
-    Map<String, BigDecimal> rates = (Map<String, BigDecimal>) ratesObj;
-    BigDecimal conversionRate = rates.get(toCurrency);
-
-
-    return amount.multiply(conversionRate);
+    // Jackson reads JSON numbers as Double or Integer, not BigDecimal; going through the string keeps the decimal digits
+    Object rate = ((Map<?, ?>) ratesObj).get(toCurrency);
+    if (rate != null) {
+        BigDecimal conversionRate = new BigDecimal(rate.toString());
+        return amount.multiply(conversionRate);
+    }
 
 }}throw new RuntimeException("Error during currency conversion.");
 
@@ -113,28 +137,73 @@ public BigDecimal convertCurrency(BigDecimal amount, String fromCurrency, String
 //        return transactions;
     }
     public List<TransactionModel> getReports(LocalDateTime startDate, LocalDateTime endDate) {
-        return transactionRepository.findByTimestampBetween(startDate, endDate);
+        return transactionLookupService.findByTimestampBetween(startDate, endDate);
     }
+
+    /**
+     * Opens a live report stream for a store dashboard, starting from today's totals.
+     * The snapshot is read from the primary: a lagging secondary would miss transactions whose
+     * events were pushed before the dashboard connected, and the totals would never catch up.
+     *
+     * @return The server-sent event emitter pushing credit/debit/net updates.
+     */
+    public SseEmitter subscribeToLiveReport() {
+        LocalDate today = LocalDate.now();
+        return liveReportPublisher.subscribe(today, () -> transactionRepository
+                .findByTimestampGreaterThanEqualAndTimestampLessThan(today.atStartOfDay(), today.plusDays(1).atStartOfDay()));
+    }
+
+    /**
+     * Returns approximate analytics for a window of days from the per-day sketches,
+     * without scanning the transactions.
+     *
+     * @param from The first day of the window.
+     * @param to   The last day of the window, inclusive.
+     * @return Amount percentiles, busiest hours, top currencies and distinct ticket amounts with error bounds.
+     */
+    public Map<String, Object> getApproximateAnalytics(LocalDate from, LocalDate to) {
+        return transactionSketchService.getAnalytics(from, to);
+    }
+
     /**
      * Generates a financial report containing total credits, debits, and net flow for a given period.
+     * Whole days inside the period are taken from the {@link DailyRollupCache}; only the partial
+     * days at either edge are scanned.
      *
      * @param startDate The start date of the report.
      * @param endDate   The end date of the report.
      * @return A map containing the total credits, debits, and net flow.
      */
     public Map<String, BigDecimal> generateFinancialReport(LocalDateTime startDate, LocalDateTime endDate) {
-        List<TransactionModel> transactions = getReports(startDate, endDate);
+        // The start itself is excluded, so the start day is never a whole day
+        LocalDate firstFullDay = startDate.toLocalDate().plusDays(1);
+        LocalDate lastPartialDay = endDate.toLocalDate();
+
+        List<TransactionModel> transactions;
+        BigDecimal totalCredits = BigDecimal.ZERO;
+        BigDecimal totalDebits = BigDecimal.ZERO;
+        if (firstFullDay.isBefore(lastPartialDay)) {
+            transactions = new ArrayList<>(getReports(startDate, firstFullDay.atStartOfDay()));
+            transactions.addAll(transactionLookupService.findByTimestampGreaterThanEqualAndTimestampLessThan(
+                    lastPartialDay.atStartOfDay(), endDate));
+            for (DailyTotals totals : dailyRollupCache.getTotals(firstFullDay, lastPartialDay)) {
+                totalCredits = totalCredits.add(totals.getTotalCredits());
+                totalDebits = totalDebits.add(totals.getTotalDebits());
+            }
+        } else {
+            transactions = getReports(startDate, endDate);
+        }
 
         // Filter and sum credits and debits
-        BigDecimal totalCredits = transactions.stream()
+        totalCredits = transactions.stream()
                 .filter(t -> t.getType() == TransactionType.CREDIT)
                 .map(TransactionModel::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+                .reduce(totalCredits, BigDecimal::add);
 
-        BigDecimal totalDebits = transactions.stream()
+        totalDebits = transactions.stream()
                 .filter(t -> t.getType() == TransactionType.DEBIT)
                 .map(TransactionModel::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+                .reduce(totalDebits, BigDecimal::add);
 
         // Calculate net flow (Credits - Debits)
         BigDecimal netFlow = totalCredits.subtract(totalDebits);
@@ -0,0 +1,345 @@
+package com.example.kirana.Service;
+
+import com.example.kirana.Model.DailySketchModel;
+import com.example.kirana.Model.TransactionModel;
+import com.example.kirana.Repository.DailySketchRepository;
+import com.example.kirana.Repository.JobLockRepository;
+import com.example.kirana.Utils.CountMinSketch;
+import com.example.kirana.Utils.HyperLogLog;
+import com.example.kirana.Utils.QuantileHistogram;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Approximate transaction analytics backed by mergeable per-day sketches.
+ *
+ * <p>Every recorded transaction updates the sketches of its day in memory: an amount quantile
+ * histogram, a count-min sketch of the currencies customers paid in, a HyperLogLog of distinct
+ * ticket amounts and exact per-hour counts. The sketches are flushed to MongoDB periodically, one
+ * document per day and instance, and any window is answered by merging the documents of its days.
+ * A crash loses at most one flush interval of analytics; reports are not affected.</p>
+ *
+ * <p>Every instance restart starts new per-instance documents, so closed days are compacted into
+ * one merged document per day and closed months into one per month. A window then reads one
+ * document per whole month it spans, plus the days around those months.</p>
+ *
+ * <p>Sketches only exist from the day recording started; earlier days cannot be rebuilt from the
+ * {@code transaction} collection because it does not keep the currency customers paid in. Answers
+ * therefore state the first covered day and whether the window reaches before it.</p>
+ */
+@Service
+public class TransactionSketchService {
+    private static final int BUSIEST_HOURS = 5;
+    private static final String MERGED_DAY = "merged";
+    private static final String MERGED_MONTH = "merged-month";
+    private static final String COMPACTION_JOB = "sketch-compaction";
+    private static final Duration COMPACTION_LEASE = Duration.ofMinutes(10);
+
+    @Autowired
+    private DailySketchRepository dailySketchRepository;
+
+    @Autowired
+    private JobLockRepository jobLockRepository;
+
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Map<LocalDate, DailySketch> current = new ConcurrentHashMap<>();
+
+    /**
+     * Adds a transaction to the sketches of its day.
+     *
+     * @param transaction      The saved transaction.
+     * @param originalCurrency The currency the customer paid in, before conversion to INR.
+     */
+    public void record(TransactionModel transaction, String originalCurrency) {
+        DailySketch sketch = current.computeIfAbsent(transaction.getTimestamp().toLocalDate(), day -> new DailySketch());
+        synchronized (sketch) {
+            sketch.add(transaction, originalCurrency);
+        }
+    }
+
+    /**
+     * Persists the in-memory sketches and drops days that can no longer receive transactions.
+     */
+    @Scheduled(fixedDelayString = "${kirana.analytics.flush-interval-ms:60000}")
+    @PreDestroy
+    public void flush() {
+        LocalDate keepFrom = LocalDate.now().minusDays(1);
+        for (Map.Entry<LocalDate, DailySketch> entry : current.entrySet()) {
+            DailySketchModel model;
+            synchronized (entry.getValue()) {
+                model = entry.getValue().toModel(entry.getKey(), instanceId);
+            }
+            dailySketchRepository.save(model);
+            if (entry.getKey().isBefore(keepFrom)) {
+                current.remove(entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * Answers approximate analytics for a window of days by merging their sketches.
+     *
+     * @param from The first day of the window.
+     * @param to   The last day of the window, inclusive.
+     * @return Amount percentiles, busiest hours, top currencies and distinct ticket amounts,
+     *         each with its error bound, and the days the sketches cover.
+     */
+    public Map<String, Object> getAnalytics(LocalDate from, LocalDate to) {
+        // One view of the in-memory days decides both what to skip and what to merge, so a concurrent
+        // flush dropping a day cannot make it count neither from MongoDB nor from memory
+        Map<LocalDate, DailySketch> local = new HashMap<>(current);
+        DailySketch merged = new DailySketch();
+        // Whole months come from their merged document; only the days around them are read per day
+        Set<YearMonth> mergedMonths = new HashSet<>();
+        LocalDate next = from;
+        for (DailySketchModel month : dailySketchRepository.findByInstanceIdAndDayGreaterThanEqualAndDayLessThanEqualOrderByDayAsc(MERGED_MONTH, from, to)) {
+            YearMonth yearMonth = YearMonth.from(month.getDay());
+            if (yearMonth.atEndOfMonth().isAfter(to)) {
+                continue;
+            }
+            merged.merge(DailySketch.fromModel(month));
+            mergedMonths.add(yearMonth);
+            mergeDays(next, month.getDay().minusDays(1), local, merged);
+            next = yearMonth.atEndOfMonth().plusDays(1);
+        }
+        mergeDays(next, to, local, merged);
+        for (Map.Entry<LocalDate, DailySketch> entry : local.entrySet()) {
+            if (!entry.getKey().isBefore(from) && !entry.getKey().isAfter(to)
+                    && !mergedMonths.contains(YearMonth.from(entry.getKey()))) {
+                synchronized (entry.getValue()) {
+                    merged.merge(entry.getValue());
+                }
+            }
+        }
+        Map<String, Object> summary = merged.summary(from, to);
+        summary.put("coverage", coverage(from, local));
+        return summary;
+    }
+
+    /**
+     * Merges the per-instance sketches of closed days into one document per day, and the days of
+     * closed months into one document per month, so long windows read a few documents instead of
+     * one per day and instance. Does nothing while another instance holds the compaction lease.
+     */
+    @Scheduled(initialDelayString = "${kirana.analytics.compact-interval-ms:3600000}",
+            fixedDelayString = "${kirana.analytics.compact-interval-ms:3600000}")
+    public void compactClosedDays() {
+        if (!jobLockRepository.tryAcquire(COMPACTION_JOB, instanceId, COMPACTION_LEASE)) {
+            return;
+        }
+        try {
+            // Instances flush a day for the last time the day after it; one more day covers clock skew
+            LocalDate closedBefore = LocalDate.now().minusDays(2);
+            for (DailySketchModel source : dailySketchRepository.findByDayLessThanAndInstanceIdNotIn(closedBefore, List.of(MERGED_DAY, MERGED_MONTH))) {
+                mergeInto(source.getDay(), MERGED_DAY, source);
+                // A late document of a month that is merged already goes into the month too
+                LocalDate month = source.getDay().withDayOfMonth(1);
+                if (dailySketchRepository.existsById(month + "_" + MERGED_MONTH)) {
+                    mergeInto(month, MERGED_MONTH, source);
+                }
+                dailySketchRepository.delete(source);
+            }
+            mergeClosedMonths(YearMonth.from(closedBefore));
+        } finally {
+            jobLockRepository.release(COMPACTION_JOB, instanceId);
+        }
+    }
+
+    // Merges the day-level documents of a part of the window that no month document covers
+    private void mergeDays(LocalDate from, LocalDate to, Map<LocalDate, DailySketch> local, DailySketch merged) {
+        if (from.isAfter(to)) {
+            return;
+        }
+        List<DailySketchModel> models = dailySketchRepository.findByDayGreaterThanEqualAndDayLessThanEqualAndInstanceIdNot(from, to, MERGED_MONTH);
+        // A compaction that failed before deleting its sources leaves them next to the merged day
+        Set<String> alreadyMerged = new HashSet<>();
+        for (DailySketchModel model : models) {
+            if (MERGED_DAY.equals(model.getInstanceId())) {
+                alreadyMerged.addAll(model.getMergedIds());
+            }
+        }
+        for (DailySketchModel model : models) {
+            // This instance's unflushed state is newer than its persisted copy
+            if (alreadyMerged.contains(model.getId())
+                    || (instanceId.equals(model.getInstanceId()) && local.containsKey(model.getDay()))) {
+                continue;
+            }
+            merged.merge(DailySketch.fromModel(model));
+        }
+    }
+
+    // Merges a document into a merged day or month, once even if a failed compaction merged it before
+    private void mergeInto(LocalDate day, String mergedKind, DailySketchModel source) {
+        DailySketchModel target = dailySketchRepository.findById(day + "_" + mergedKind).orElse(null);
+        List<String> mergedIds = new ArrayList<>(target != null ? target.getMergedIds() : List.of());
+        if (mergedIds.contains(source.getId())) {
+            return;
+        }
+        DailySketch sketch = target != null ? DailySketch.fromModel(target) : new DailySketch();
+        sketch.merge(DailySketch.fromModel(source));
+        mergedIds.add(source.getId());
+        DailySketchModel model = sketch.toModel(day, mergedKind);
+        model.setMergedIds(mergedIds);
+        dailySketchRepository.save(model);
+    }
+
+    // Builds the month documents of closed months from their merged days, after the last month merged
+    private void mergeClosedMonths(YearMonth firstOpen) {
+        DailySketchModel lastMonth = dailySketchRepository.findFirstByInstanceIdOrderByDayDesc(MERGED_MONTH);
+        DailySketchModel firstDay = dailySketchRepository.findFirstByInstanceIdOrderByDayAsc(MERGED_DAY);
+        if (firstDay == null) {
+            return;
+        }
+        YearMonth month = lastMonth != null ? YearMonth.from(lastMonth.getDay()).plusMonths(1) : YearMonth.from(firstDay.getDay());
+        for (; month.isBefore(firstOpen); month = month.plusMonths(1)) {
+            List<DailySketchModel> days = dailySketchRepository.findByInstanceIdAndDayGreaterThanEqualAndDayLessThanEqualOrderByDayAsc(
+                    MERGED_DAY, month.atDay(1), month.atEndOfMonth());
+            if (days.isEmpty()) {
+                continue;
+            }
+            DailySketch sketch = new DailySketch();
+            for (DailySketchModel day : days) {
+                sketch.merge(DailySketch.fromModel(day));
+            }
+            dailySketchRepository.save(sketch.toModel(month.atDay(1), MERGED_MONTH));
+        }
+    }
+
+    private Map<String, Object> coverage(LocalDate from, Map<LocalDate, DailySketch> local) {
+        DailySketchModel first = dailySketchRepository.findFirstByInstanceIdNotOrderByDayAsc(MERGED_MONTH);
+        LocalDate coveredFrom = first != null ? first.getDay() : null;
+        for (LocalDate day : local.keySet()) {
+            if (coveredFrom == null || day.isBefore(coveredFrom)) {
+                coveredFrom = day;
+            }
+        }
+        Map<String, Object> coverage = new LinkedHashMap<>();
+        coverage.put("coveredFrom", coveredFrom != null ? coveredFrom.toString() : null);
+        coverage.put("partial", coveredFrom == null || from.isBefore(coveredFrom));
+        return coverage;
+    }
+
+    static class DailySketch {
+        private final long[] hourCounts;
+        private final QuantileHistogram amounts;
+        private final CountMinSketch currencies;
+        private final HyperLogLog distinctAmounts;
+        private long count;
+
+        DailySketch() {
+            this(new long[24], new QuantileHistogram(), new CountMinSketch(), new HyperLogLog(), 0);
+        }
+
+        private DailySketch(long[] hourCounts, QuantileHistogram amounts, CountMinSketch currencies,
+                            HyperLogLog distinctAmounts, long count) {
+            this.hourCounts = hourCounts;
+            this.amounts = amounts;
+            this.currencies = currencies;
+            this.distinctAmounts = distinctAmounts;
+            this.count = count;
+        }
+
+        void add(TransactionModel transaction, String originalCurrency) {
+            count++;
+            hourCounts[transaction.getTimestamp().getHour()]++;
+            amounts.add(transaction.getAmount().doubleValue());
+            currencies.add(originalCurrency.toUpperCase());
+            distinctAmounts.add(transaction.getAmount().stripTrailingZeros().toPlainString());
+        }
+
+        void merge(DailySketch other) {
+            count += other.count;
+            for (int hour = 0; hour < hourCounts.length; hour++) {
+                hourCounts[hour] += other.hourCounts[hour];
+            }
+            amounts.merge(other.amounts);
+            currencies.merge(other.currencies);
+            distinctAmounts.merge(other.distinctAmounts);
+        }
+
+        DailySketchModel toModel(LocalDate day, String instanceId) {
+            DailySketchModel model = new DailySketchModel();
+            model.setId(day + "_" + instanceId);
+            model.setDay(day);
+            model.setInstanceId(instanceId);
+            model.setCount(count);
+            model.setHourCounts(hourCounts.clone());
+            model.setAmountQuantiles(amounts.toBytes());
+            model.setCurrencies(currencies.toBytes());
+            model.setDistinctAmounts(distinctAmounts.toBytes());
+            return model;
+        }
+
+        static DailySketch fromModel(DailySketchModel model) {
+            return new DailySketch(model.getHourCounts().clone(), QuantileHistogram.fromBytes(model.getAmountQuantiles()),
+                    CountMinSketch.fromBytes(model.getCurrencies()), HyperLogLog.fromBytes(model.getDistinctAmounts()),
+                    model.getCount());
+        }
+
+        Map<String, Object> summary(LocalDate from, LocalDate to) {
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("from", from.toString());
+            summary.put("to", to.toString());
+            summary.put("transactions", count);
+
+            Map<String, Object> quantiles = new LinkedHashMap<>();
+            if (amounts.getCount() > 0) {
+                quantiles.put("p50", amounts.quantile(0.50));
+                quantiles.put("p90", amounts.quantile(0.90));
+                quantiles.put("p95", amounts.quantile(0.95));
+                quantiles.put("p99", amounts.quantile(0.99));
+            }
+            quantiles.put("relativeError", QuantileHistogram.RELATIVE_ACCURACY);
+            summary.put("amountPercentiles", quantiles);
+
+            List<Integer> hours = new ArrayList<>();
+            for (int hour = 0; hour < hourCounts.length; hour++) {
+                if (hourCounts[hour] > 0) {
+                    hours.add(hour);
+                }
+            }
+            hours.sort(Comparator.comparingLong((Integer hour) -> hourCounts[hour]).reversed());
+            List<Map<String, Object>> busiestHours = new ArrayList<>();
+            for (Integer hour : hours.subList(0, Math.min(BUSIEST_HOURS, hours.size()))) {
+                busiestHours.add(Map.of("hour", hour, "transactions", hourCounts[hour]));
+            }
+            summary.put("busiestHours", busiestHours);
+
+            List<Map<String, Object>> topCurrencies = new ArrayList<>();
+            for (String currency : currencies.topItems()) {
+                topCurrencies.add(Map.of("currency", currency, "transactions", currencies.estimate(currency)));
+            }
+            Map<String, Object> currencySummary = new LinkedHashMap<>();
+            currencySummary.put("top", topCurrencies);
+            currencySummary.put("maxOvercount", currencies.getMaxError());
+            currencySummary.put("confidence", 1 - Math.exp(-CountMinSketch.DEPTH));
+            summary.put("currencies", currencySummary);
+
+            double distinct = distinctAmounts.estimate();
+            double margin = 2 * HyperLogLog.RELATIVE_STANDARD_ERROR * distinct;
+            Map<String, Object> distinctSummary = new LinkedHashMap<>();
+            distinctSummary.put("estimate", Math.round(distinct));
+            distinctSummary.put("lowerBound", Math.round(Math.max(0, distinct - margin)));
+            distinctSummary.put("upperBound", Math.round(distinct + margin));
+            distinctSummary.put("confidence", 0.95);
+            summary.put("distinctTicketAmounts", distinctSummary);
+            return summary;
+        }
+    }
+}
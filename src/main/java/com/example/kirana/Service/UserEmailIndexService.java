@@ -0,0 +1,104 @@
+package com.example.kirana.Service;
+
+import com.example.kirana.Model.UserModel;
+import jakarta.annotation.PostConstruct;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Creates the unique index on {@code users.email} that guards against duplicate registrations.
+ *
+ * <p>Databases that already hold duplicate emails cannot get the index. By default the application
+ * then starts without it, logs the duplicates and keeps checking every registration against the
+ * database. With {@code kirana.users.dedupe-emails=true} the oldest account of each email is kept,
+ * the newer ones are moved to the {@code users_duplicate_emails} collection and the index is created.</p>
+ */
+@Service
+public class UserEmailIndexService {
+    private static final Logger log = LoggerFactory.getLogger(UserEmailIndexService.class);
+    private static final String DUPLICATES_COLLECTION = "users_duplicate_emails";
+    // Same name auto-index-creation gave the index, so an existing one is reused
+    private static final String INDEX_NAME = "email";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${kirana.users.dedupe-emails:false}")
+    private boolean dedupeEmails;
+
+    private volatile boolean uniqueIndexActive;
+
+    @PostConstruct
+    public void ensureUniqueIndex() {
+        List<String> duplicates = findDuplicateEmails();
+        if (!duplicates.isEmpty()) {
+            if (!dedupeEmails) {
+                log.error("Cannot create the unique index on users.email: {} emails are registered more than once, e.g. {}. "
+                                + "Every registration is checked against the database until this is resolved; set "
+                                + "kirana.users.dedupe-emails=true to move the newer duplicates to {} and create the index.",
+                        duplicates.size(), duplicates.subList(0, Math.min(5, duplicates.size())), DUPLICATES_COLLECTION);
+                return;
+            }
+            moveNewerDuplicates(duplicates);
+        }
+        try {
+            mongoTemplate.indexOps(UserModel.class).ensureIndex(new Index().on("email", Sort.Direction.ASC).unique().named(INDEX_NAME));
+            uniqueIndexActive = true;
+        } catch (DataAccessException e) {
+            // E.g. a duplicate registered between the check and the index build
+            log.error("Could not create the unique index on users.email; every registration is checked against the database", e);
+        }
+    }
+
+    /**
+     * Tells whether the database rejects duplicate emails on its own.
+     *
+     * @return true once the unique index on {@code users.email} exists.
+     */
+    public boolean isUniqueIndexActive() {
+        return uniqueIndexActive;
+    }
+
+    private List<String> findDuplicateEmails() {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.group("email").count().as("count"),
+                Aggregation.match(Criteria.where("count").gt(1))
+        ).withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+        return mongoTemplate.aggregate(aggregation, UserModel.class, Document.class).getMappedResults().stream()
+                .map(result -> result.getString("_id"))
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    // Keeps the oldest account of each email; the others are moved, not deleted, so they can be reviewed
+    private void moveNewerDuplicates(List<String> emails) {
+        String users = mongoTemplate.getCollectionName(UserModel.class);
+        int moved = 0;
+        for (String email : emails) {
+            Query query = Query.query(Criteria.where("email").is(email)).with(Sort.by(Sort.Direction.ASC, "_id"));
+            List<Document> accounts = mongoTemplate.find(query, Document.class, users);
+            for (Document duplicate : accounts.subList(1, accounts.size())) {
+                // save is an upsert by _id, so an instance deduplicating at the same time does no harm
+                mongoTemplate.save(duplicate, DUPLICATES_COLLECTION);
+                mongoTemplate.remove(Query.query(Criteria.where("_id").is(duplicate.get("_id"))), users);
+                moved++;
+            }
+        }
+        log.warn("Moved {} duplicate user accounts of {} emails to {}", moved, emails.size(), DUPLICATES_COLLECTION);
+    }
+}
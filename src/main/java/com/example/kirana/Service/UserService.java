@@ -2,11 +2,25 @@ package com.example.kirana.Service;
 
 import com.example.kirana.Model.UserModel;
 import com.example.kirana.Repository.UserRepository;
+import com.example.kirana.Utils.RateLimitExceededException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import com.example.kirana.Utils.UserRegistrationDTO;
 
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 @Service
 public class UserService {
     @Autowired
@@ -15,17 +29,61 @@ public class UserService {
     @Autowired
     private BCryptPasswordEncoder passwordEncoder;
 
+    @Autowired
+    private EmailExistenceFilter emailExistenceFilter;
+
+    @Autowired
+    private UserEmailIndexService userEmailIndexService;
+
+    @Value("${kirana.users.password-hashing.threads:2}")
+    private int passwordHashingThreads;
+
+    @Value("${kirana.users.password-hashing.queue:2}")
+    private int passwordHashingQueue;
+
+    @Value("${kirana.users.password-hashing.max-wait-ms:1000}")
+    private long passwordHashingMaxWaitMs;
+
+    // Small bounded pool for BCrypt hashing, so registration bursts cannot take the CPU from request threads.
+    // Kept private: an Executor bean would replace Spring Boot's default application task executor.
+    private ExecutorService passwordHashingExecutor;
+
+    @PostConstruct
+    public void startPasswordHashing() {
+        passwordHashingExecutor = new ThreadPoolExecutor(passwordHashingThreads, passwordHashingThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(passwordHashingQueue), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void stopPasswordHashing() {
+        passwordHashingExecutor.shutdown();
+    }
+
     // Method to register a new user
     public UserModel registerUser(UserRegistrationDTO userDto) {
-        if (userRepository.findByEmail(userDto.getEmail()) != null) {
+        // The email filter cannot hash null; reject before touching it
+        if (userDto.getEmail() == null || userDto.getEmail().isBlank()) {
+            throw new IllegalArgumentException("Email is required");
+        }
+        // Only emails the filter may have seen need a lookup; the unique index catches the rest on insert.
+        // Without the index (duplicates left in the database) every email is looked up.
+        boolean mightExist = !userEmailIndexService.isUniqueIndexActive() || emailExistenceFilter.mightExist(userDto.getEmail());
+        if (mightExist && userRepository.findByEmail(userDto.getEmail()) != null) {
             throw new IllegalArgumentException("Email is already in use");
         }
         UserModel user = new UserModel();
         user.setName(userDto.getName());
         user.setEmail(userDto.getEmail());
-        user.setPassword(passwordEncoder.encode(userDto.getPassword()));
-        user.setRole(userDto.getRole() != null ? userDto.getRole() : "ROLE_READ_ONLY");// Encrypting the password
-        return userRepository.save(user);
+        user.setPassword(hashPassword(userDto.getPassword()));// Encrypting the password
+        user.setRole(userDto.getRole() != null ? userDto.getRole() : "ROLE_READ_ONLY");
+        try {
+            UserModel saved = userRepository.save(user);
+            emailExistenceFilter.add(saved.getEmail());
+            return saved;
+        } catch (DuplicateKeyException e) {
+            emailExistenceFilter.add(user.getEmail());
+            throw new IllegalArgumentException("Email is already in use");
+        }
     }
 
     public UserModel loginUser(String email, String password) {
@@ -35,4 +93,24 @@ public class UserService {
         }
         return user;
     }
+
+    // Waits a bounded time, so a registration burst cannot park request threads behind the hashing pool
+    private String hashPassword(String password) {
+        Future<String> hash = null;
+        try {
+            hash = passwordHashingExecutor.submit(() -> passwordEncoder.encode(password));
+            return hash.get(passwordHashingMaxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            throw new RateLimitExceededException("Too many registrations, please try again later.");
+        } catch (TimeoutException e) {
+            hash.cancel(true);
+            throw new RateLimitExceededException("Too many registrations, please try again later.");
+        } catch (InterruptedException e) {
+            hash.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RateLimitExceededException("Registration was interrupted, please try again later.");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
 }
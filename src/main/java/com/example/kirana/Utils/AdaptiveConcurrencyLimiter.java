@@ -0,0 +1,209 @@
+package com.example.kirana.Utils;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AIMD concurrency limiter with priority classes.
+ *
+ * <p>The limit grows by one per limit-worth of fast completions and shrinks by 10% whenever a
+ * write finishes slower than its latency target. Only writes can shrink the limit: a report that
+ * is slow because it scans a year of data says nothing about overload, and must not take capacity
+ * away from writes. Lower classes may only use a share of the limit, so writes always find room
+ * while reports are throttled first. Requests over the limit wait in a priority queue for a
+ * bounded time; when the queue is full the lowest queued class is shed to make room for a higher
+ * one.</p>
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    /**
+     * Request classes, highest priority first.
+     */
+    public enum Priority {
+        WRITE(1.0),
+        SHORT_REPORT(0.8),
+        // Registration and login hash passwords with BCrypt, so they are CPU-bound and get a small share
+        AUTH(0.3),
+        LONG_REPORT(0.5);
+
+        // Share of the current limit the class may occupy
+        private final double share;
+
+        Priority(double share) {
+            this.share = share;
+        }
+    }
+
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int maxQueueSize;
+    private final PriorityQueue<Waiter> waiters = new PriorityQueue<>(
+            Comparator.<Waiter>comparingInt(w -> w.priority.ordinal()).thenComparingLong(w -> w.sequence));
+
+    private double limit;
+    private int inFlight;
+    private long sequence;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, int maxQueueSize) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.maxQueueSize = maxQueueSize;
+    }
+
+    /**
+     * A granted slot. Must be released exactly once when the request finishes.
+     */
+    public final class Permit {
+        private final Priority priority;
+        private final long startNanos = System.nanoTime();
+
+        private Permit(Priority priority) {
+            this.priority = priority;
+        }
+
+        /**
+         * Frees the slot and feeds the request latency back into the limit.
+         *
+         * @param latencyTargetNanos The latency above which this request counts as a sign of overload.
+         */
+        public void release(long latencyTargetNanos) {
+            onRelease(priority, System.nanoTime() - startNanos > latencyTargetNanos);
+        }
+
+        public Priority getPriority() {
+            return priority;
+        }
+    }
+
+    private static final class Waiter {
+        private final Priority priority;
+        private final long sequence;
+        private boolean granted;
+        private boolean shed;
+
+        private Waiter(Priority priority, long sequence) {
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+    }
+
+    /**
+     * Acquires a slot for a request, waiting up to the given time if the limit is reached.
+     *
+     * @param priority The class of the request.
+     * @param maxWait  The longest time the request may wait for a slot.
+     * @param unit     The unit of maxWait.
+     * @return The permit, or null if the request was shed.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    public synchronized Permit tryAcquire(Priority priority, long maxWait, TimeUnit unit) throws InterruptedException {
+        if (waitersAhead(priority) == 0 && hasRoom(priority)) {
+            inFlight++;
+            return new Permit(priority);
+        }
+        if (maxWait <= 0) {
+            return null;
+        }
+        if (waiters.size() >= maxQueueSize && !shedLowerThan(priority)) {
+            return null;
+        }
+
+        Waiter waiter = new Waiter(priority, sequence++);
+        waiters.add(waiter);
+        long deadline = System.nanoTime() + unit.toNanos(maxWait);
+        try {
+            while (!waiter.granted && !waiter.shed) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    break;
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            }
+        } catch (InterruptedException e) {
+            if (waiter.granted) {
+                // The slot was granted just before the interrupt; hand it on instead of leaking it
+                inFlight--;
+                grantWaiters();
+            } else {
+                waiters.remove(waiter);
+            }
+            throw e;
+        }
+        if (!waiter.granted) {
+            waiters.remove(waiter);
+            return null;
+        }
+        return new Permit(priority);
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    private synchronized void onRelease(Priority priority, boolean slow) {
+        boolean saturated = inFlight >= limit * 0.5;
+        inFlight--;
+        if (slow) {
+            if (priority == Priority.WRITE) {
+                limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+            }
+        } else if (saturated) {
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+        grantWaiters();
+    }
+
+    private boolean hasRoom(Priority priority) {
+        return inFlight < Math.max(1, (int) (limit * priority.share));
+    }
+
+    private int waitersAhead(Priority priority) {
+        int ahead = 0;
+        for (Waiter waiter : waiters) {
+            if (waiter.priority.ordinal() <= priority.ordinal()) {
+                ahead++;
+            }
+        }
+        return ahead;
+    }
+
+    private void grantWaiters() {
+        boolean granted = false;
+        while (!waiters.isEmpty() && hasRoom(waiters.peek().priority)) {
+            Waiter waiter = waiters.poll();
+            waiter.granted = true;
+            inFlight++;
+            granted = true;
+        }
+        if (granted) {
+            notifyAll();
+        }
+    }
+
+    // Sheds the newest queued request of the lowest class below the given priority, if any
+    private boolean shedLowerThan(Priority priority) {
+        Waiter victim = null;
+        for (Waiter waiter : waiters) {
+            if (waiter.priority.ordinal() > priority.ordinal()
+                    && (victim == null || waiter.priority.ordinal() > victim.priority.ordinal()
+                    || (waiter.priority == victim.priority && waiter.sequence > victim.sequence))) {
+                victim = waiter;
+            }
+        }
+        if (victim == null) {
+            return false;
+        }
+        waiters.remove(victim);
+        victim.shed = true;
+        notifyAll();
+        return true;
+    }
+}
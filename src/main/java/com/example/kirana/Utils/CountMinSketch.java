@@ -0,0 +1,158 @@
+package com.example.kirana.Utils;
+
+import com.google.common.hash.Hashing;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Mergeable count-min sketch that also tracks the current heavy hitters.
+ *
+ * <p>With {@link #WIDTH} counters per row, an estimate exceeds the true count by at most
+ * e / WIDTH of all counted items (about 0.53%). The {@link #DEPTH} rows make this hold with a
+ * probability of 1 - e^-DEPTH (about 98%). Estimates never undercount. The {@link #TOP_K}
+ * items with the highest estimates are kept as heavy-hitter candidates.</p>
+ */
+public class CountMinSketch {
+    public static final int DEPTH = 4;
+    public static final int WIDTH = 512;
+    public static final int TOP_K = 16;
+
+    private final long[][] table = new long[DEPTH][WIDTH];
+    private final Set<String> candidates = new LinkedHashSet<>();
+    private long total;
+
+    public void add(String item) {
+        long hash = hash(item);
+        for (int row = 0; row < DEPTH; row++) {
+            table[row][bucket(hash, row)]++;
+        }
+        total++;
+        // Counting a current candidate cannot push another one out, so only a new candidate needs a trim
+        if (candidates.add(item)) {
+            trimCandidates();
+        }
+    }
+
+    public void merge(CountMinSketch other) {
+        for (int row = 0; row < DEPTH; row++) {
+            for (int column = 0; column < WIDTH; column++) {
+                table[row][column] += other.table[row][column];
+            }
+        }
+        total += other.total;
+        candidates.addAll(other.candidates);
+        trimCandidates();
+    }
+
+    /**
+     * Estimates how often an item was counted.
+     *
+     * @param item The item.
+     * @return The estimated count; never lower than the true count.
+     */
+    public long estimate(String item) {
+        long hash = hash(item);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            estimate = Math.min(estimate, table[row][bucket(hash, row)]);
+        }
+        return estimate;
+    }
+
+    /**
+     * Returns the maximum overcount of any estimate, holding with about 98% probability.
+     *
+     * @return The error bound in counts.
+     */
+    public long getMaxError() {
+        return (long) Math.ceil(Math.E / WIDTH * total);
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Returns the heavy-hitter candidates, most frequent first.
+     *
+     * @return Up to {@link #TOP_K} items ordered by estimated count.
+     */
+    public List<String> topItems() {
+        List<String> items = new ArrayList<>(candidates);
+        items.sort(Comparator.comparingLong(this::estimate).reversed());
+        return items;
+    }
+
+    public byte[] toBytes() {
+        List<byte[]> encoded = new ArrayList<>(candidates.size());
+        int size = 8 + DEPTH * WIDTH * 8 + 4;
+        for (String candidate : candidates) {
+            byte[] bytes = candidate.getBytes(StandardCharsets.UTF_8);
+            encoded.add(bytes);
+            size += 4 + bytes.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putLong(total);
+        for (long[] row : table) {
+            for (long counter : row) {
+                buffer.putLong(counter);
+            }
+        }
+        buffer.putInt(encoded.size());
+        for (byte[] bytes : encoded) {
+            buffer.putInt(bytes.length);
+            buffer.put(bytes);
+        }
+        return buffer.array();
+    }
+
+    public static CountMinSketch fromBytes(byte[] bytes) {
+        CountMinSketch sketch = new CountMinSketch();
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        sketch.total = buffer.getLong();
+        for (long[] row : sketch.table) {
+            for (int column = 0; column < WIDTH; column++) {
+                row[column] = buffer.getLong();
+            }
+        }
+        int candidates = buffer.getInt();
+        for (int i = 0; i < candidates; i++) {
+            byte[] candidate = new byte[buffer.getInt()];
+            buffer.get(candidate);
+            sketch.candidates.add(new String(candidate, StandardCharsets.UTF_8));
+        }
+        return sketch;
+    }
+
+    private void trimCandidates() {
+        while (candidates.size() > TOP_K) {
+            String smallest = null;
+            long smallestEstimate = Long.MAX_VALUE;
+            for (String candidate : candidates) {
+                long estimate = estimate(candidate);
+                if (estimate < smallestEstimate) {
+                    smallest = candidate;
+                    smallestEstimate = estimate;
+                }
+            }
+            candidates.remove(smallest);
+        }
+    }
+
+    private static long hash(String item) {
+        return Hashing.murmur3_128().hashString(item, StandardCharsets.UTF_8).asLong();
+    }
+
+    // Row hashes are derived from one 64-bit hash (Kirsch-Mitzenmacher)
+    private static int bucket(long hash, int row) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        return Math.floorMod(h1 + row * h2, WIDTH);
+    }
+}
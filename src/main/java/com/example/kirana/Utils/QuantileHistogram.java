@@ -0,0 +1,97 @@
+package com.example.kirana.Utils;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Mergeable quantile sketch over non-negative values with a fixed relative error.
+ *
+ * <p>Values are counted in logarithmic buckets (HDR/DDSketch style): every bucket spans values that
+ * are within {@link #RELATIVE_ACCURACY} of the bucket's representative value, so any quantile is
+ * returned with at most 1% relative error, independent of the number of values. Merging adds bucket
+ * counts, so per-day sketches can be combined into any window without losing accuracy. Amounts from
+ * 1 to 10 million need at most about 800 buckets. Values of zero or below are counted as zero.</p>
+ */
+public class QuantileHistogram {
+    public static final double RELATIVE_ACCURACY = 0.01;
+
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+
+    private final TreeMap<Integer, Long> buckets = new TreeMap<>();
+    private long zeroCount;
+    private long count;
+
+    public void add(double value) {
+        if (value <= 0) {
+            zeroCount++;
+        } else {
+            buckets.merge((int) Math.ceil(Math.log(value) / LOG_GAMMA), 1L, Long::sum);
+        }
+        count++;
+    }
+
+    public void merge(QuantileHistogram other) {
+        other.buckets.forEach((index, bucketCount) -> buckets.merge(index, bucketCount, Long::sum));
+        zeroCount += other.zeroCount;
+        count += other.count;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Estimates a quantile.
+     *
+     * @param quantile The quantile between 0 and 1, e.g. 0.99 for p99.
+     * @return The estimated value, within 1% of the exact one, or NaN if the sketch is empty.
+     */
+    public double quantile(double quantile) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long rank = (long) (quantile * (count - 1));
+        long seen = zeroCount;
+        if (rank < seen) {
+            return 0;
+        }
+        for (Map.Entry<Integer, Long> bucket : buckets.entrySet()) {
+            seen += bucket.getValue();
+            if (rank < seen) {
+                return value(bucket.getKey());
+            }
+        }
+        return value(buckets.lastKey());
+    }
+
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(8 + 8 + 4 + buckets.size() * 12);
+        buffer.putLong(count);
+        buffer.putLong(zeroCount);
+        buffer.putInt(buckets.size());
+        buckets.forEach((index, bucketCount) -> {
+            buffer.putInt(index);
+            buffer.putLong(bucketCount);
+        });
+        return buffer.array();
+    }
+
+    public static QuantileHistogram fromBytes(byte[] bytes) {
+        QuantileHistogram histogram = new QuantileHistogram();
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        histogram.count = buffer.getLong();
+        histogram.zeroCount = buffer.getLong();
+        int size = buffer.getInt();
+        for (int i = 0; i < size; i++) {
+            histogram.buckets.put(buffer.getInt(), buffer.getLong());
+        }
+        return histogram;
+    }
+
+    // The representative value of a bucket is within the relative accuracy of every value in it
+    private static double value(int index) {
+        return 2 * Math.pow(GAMMA, index) / (GAMMA + 1);
+    }
+}
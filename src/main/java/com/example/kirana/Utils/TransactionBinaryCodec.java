@@ -0,0 +1,152 @@
+package com.example.kirana.Utils;
+
+import com.example.kirana.Model.TransactionModel;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.bson.types.ObjectId;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Compact encoding of {@link TransactionModel} for binary wire formats such as CBOR.
+ *
+ * <p>A transaction is written as a fixed 7-element array instead of an object with field names:</p>
+ * <pre>
+ *   [ id (12 raw ObjectId bytes), unscaled amount, amount scale, type ordinal,
+ *     currency, epoch second, nano of second ]
+ * </pre>
+ * The amount and timestamp are written as plain numbers, so no BigDecimal or date strings are
+ * formatted or parsed. Missing fields are written as null. Only register this module on binary
+ * mappers; JSON clients keep the regular field-name format.
+ */
+public final class TransactionBinaryCodec {
+    private static final int FIELD_COUNT = 7;
+
+    private TransactionBinaryCodec() {
+    }
+
+    public static SimpleModule module() {
+        SimpleModule module = new SimpleModule("TransactionBinaryCodec");
+        module.addSerializer(TransactionModel.class, new Serializer());
+        module.addDeserializer(TransactionModel.class, new Deserializer());
+        return module;
+    }
+
+    static class Serializer extends JsonSerializer<TransactionModel> {
+        @Override
+        public void serialize(TransactionModel transaction, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            gen.writeStartArray(transaction, FIELD_COUNT);
+
+            if (transaction.getId() != null && ObjectId.isValid(transaction.getId())) {
+                gen.writeBinary(new ObjectId(transaction.getId()).toByteArray());
+            } else if (transaction.getId() != null) {
+                gen.writeString(transaction.getId());
+            } else {
+                gen.writeNull();
+            }
+
+            BigDecimal amount = transaction.getAmount();
+            if (amount == null) {
+                gen.writeNull();
+                gen.writeNull();
+            } else {
+                BigInteger unscaled = amount.unscaledValue();
+                if (unscaled.bitLength() < 64) {
+                    gen.writeNumber(unscaled.longValue());
+                } else {
+                    gen.writeNumber(unscaled);
+                }
+                gen.writeNumber(amount.scale());
+            }
+
+            if (transaction.getType() == null) {
+                gen.writeNull();
+            } else {
+                gen.writeNumber(transaction.getType().ordinal());
+            }
+
+            if (transaction.getCurrency() == null) {
+                gen.writeNull();
+            } else {
+                gen.writeString(transaction.getCurrency());
+            }
+
+            LocalDateTime timestamp = transaction.getTimestamp();
+            if (timestamp == null) {
+                gen.writeNull();
+                gen.writeNull();
+            } else {
+                gen.writeNumber(timestamp.toEpochSecond(ZoneOffset.UTC));
+                gen.writeNumber(timestamp.getNano());
+            }
+
+            gen.writeEndArray();
+        }
+    }
+
+    static class Deserializer extends JsonDeserializer<TransactionModel> {
+        @Override
+        public TransactionModel deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (p.currentToken() != JsonToken.START_ARRAY) {
+                return (TransactionModel) ctxt.handleUnexpectedToken(TransactionModel.class, p);
+            }
+            TransactionModel transaction = new TransactionModel();
+
+            JsonToken token = p.nextToken();
+            if (token == JsonToken.VALUE_EMBEDDED_OBJECT) {
+                transaction.setId(new ObjectId(p.getBinaryValue()).toHexString());
+            } else if (token == JsonToken.VALUE_STRING) {
+                transaction.setId(p.getText());
+            }
+
+            token = p.nextToken();
+            boolean hasAmount = token != JsonToken.VALUE_NULL;
+            boolean fitsLong = hasAmount && p.getNumberType() != JsonParser.NumberType.BIG_INTEGER;
+            long unscaledLong = fitsLong ? p.getLongValue() : 0;
+            BigInteger unscaled = hasAmount && !fitsLong ? p.getBigIntegerValue() : null;
+            token = p.nextToken();
+            if (hasAmount && token != JsonToken.VALUE_NULL) {
+                int scale = p.getIntValue();
+                transaction.setAmount(fitsLong ? BigDecimal.valueOf(unscaledLong, scale) : new BigDecimal(unscaled, scale));
+            }
+
+            token = p.nextToken();
+            if (token != JsonToken.VALUE_NULL) {
+                int ordinal = p.getIntValue();
+                TransactionModel.TransactionType[] types = TransactionModel.TransactionType.values();
+                if (ordinal < 0 || ordinal >= types.length) {
+                    return ctxt.reportInputMismatch(TransactionModel.class, "Unknown transaction type ordinal %d", ordinal);
+                }
+                transaction.setType(types[ordinal]);
+            }
+
+            token = p.nextToken();
+            if (token != JsonToken.VALUE_NULL) {
+                transaction.setCurrency(p.getText());
+            }
+
+            token = p.nextToken();
+            long epochSecond = token == JsonToken.VALUE_NULL ? 0 : p.getLongValue();
+            boolean hasTimestamp = token != JsonToken.VALUE_NULL;
+            token = p.nextToken();
+            if (hasTimestamp && token != JsonToken.VALUE_NULL) {
+                transaction.setTimestamp(LocalDateTime.ofEpochSecond(epochSecond, p.getIntValue(), ZoneOffset.UTC));
+            }
+
+            if (p.nextToken() != JsonToken.END_ARRAY) {
+                return (TransactionModel) ctxt.handleUnexpectedToken(TransactionModel.class, p);
+            }
+            return transaction;
+        }
+    }
+}
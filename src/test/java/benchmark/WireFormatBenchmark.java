@@ -0,0 +1,81 @@
+package benchmark;
+
+import com.example.kirana.Model.TransactionModel;
+import com.example.kirana.Utils.TransactionBinaryCodec;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.bson.types.ObjectId;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Compares the JSON and compact CBOR encodings of a report response: bytes per record and
+ * serialization time per record. Both mappers start from Boot's Jackson defaults (ISO date strings,
+ * not timestamp arrays), and the CBOR mapper adds the codec the way {@code WireFormatConfig} does.
+ *
+ * <p>Run with {@code mvn -P load-test test-compile exec:java -Dexec.mainClass=benchmark.WireFormatBenchmark}.</p>
+ */
+public class WireFormatBenchmark {
+    private static final int RECORDS = 10_000;
+    private static final int WARMUP_ROUNDS = 200;
+    private static final int MEASURED_ROUNDS = 200;
+
+    public static void main(String[] args) throws Exception {
+        List<TransactionModel> report = sampleReport();
+        ObjectMapper json = bootDefaults().build();
+        ObjectMapper cbor = bootDefaults()
+                .factory(new CBORFactory())
+                .postConfigurer(mapper -> mapper.registerModule(TransactionBinaryCodec.module()))
+                .build();
+        if (!(cbor.getFactory() instanceof CBORFactory)) {
+            throw new IllegalStateException("CBOR mapper not configured");
+        }
+
+        System.out.printf("%-6s %14s %14s%n", "format", "bytes/record", "ns/record");
+        print("json", json.writerFor(json.getTypeFactory().constructCollectionType(List.class, TransactionModel.class)), report);
+        print("cbor", cbor.writerFor(cbor.getTypeFactory().constructCollectionType(List.class, TransactionModel.class)), report);
+    }
+
+    // What Boot's JacksonAutoConfiguration changes on top of the builder's own defaults
+    private static Jackson2ObjectMapperBuilder bootDefaults() {
+        return Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS);
+    }
+
+    private static void print(String format, ObjectWriter writer, List<TransactionModel> report) throws Exception {
+        int size = 0;
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            size = writer.writeValueAsBytes(report).length;
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            size = writer.writeValueAsBytes(report).length;
+        }
+        double nsPerRecord = (double) (System.nanoTime() - start) / MEASURED_ROUNDS / RECORDS;
+        System.out.printf("%-6s %14.1f %14.1f%n", format, (double) size / RECORDS, nsPerRecord);
+    }
+
+    // Amounts look like converted till entries (INR with a few decimals), timestamps like LocalDateTime.now()
+    private static List<TransactionModel> sampleReport() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LocalDateTime now = LocalDateTime.now();
+        List<TransactionModel> report = new ArrayList<>(RECORDS);
+        for (int i = 0; i < RECORDS; i++) {
+            TransactionModel transaction = new TransactionModel();
+            transaction.setId(new ObjectId().toHexString());
+            transaction.setAmount(BigDecimal.valueOf(random.nextLong(100, 20_000_000), random.nextInt(0, 5)));
+            transaction.setCurrency("INR");
+            transaction.setType(random.nextBoolean() ? TransactionModel.TransactionType.CREDIT : TransactionModel.TransactionType.DEBIT);
+            transaction.setTimestamp(now.minusSeconds(random.nextInt(30 * 24 * 3600)).withNano(random.nextInt(1_000_000) * 1000));
+            report.add(transaction);
+        }
+        return report;
+    }
+}
@@ -3,7 +3,10 @@ package controller;
 import com.example.kirana.Controller.TransactionController;
 import com.example.kirana.Model.TransactionModel;
 import com.example.kirana.Service.TransactionService;
+import com.example.kirana.Utils.TransactionBinaryCodec;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,18 +14,26 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(TransactionController.class)
@@ -93,4 +104,60 @@ public class ControllerTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isBadRequest());
     }
-}
\ No newline at end of file
+    // Test for the live report stream
+    @Test
+    public void testStreamLiveReport() throws Exception {
+        when(transactionService.subscribeToLiveReport()).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/api/transactions/reports/live")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isOk())
+                .andExpect(request().asyncStarted());
+    }
+    // Test for the compact CBOR encoding of a report
+    @Test
+    public void testGenerateMonthlyReportCbor() throws Exception {
+        List<TransactionModel> transactions = Arrays.asList(transaction);
+        when(transactionService.getReports(any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(transactions);
+
+        byte[] body = mockMvc.perform(get("/api/transactions/reports")
+                        .param("type", "monthly")
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        ObjectMapper cborMapper = new ObjectMapper(new CBORFactory()).registerModule(TransactionBinaryCodec.module());
+        List<TransactionModel> decoded = cborMapper.readValue(body, new TypeReference<List<TransactionModel>>() {});
+        assertEquals(1, decoded.size());
+        assertEquals(transaction.getId(), decoded.get(0).getId());
+        assertEquals(transaction.getAmount(), decoded.get(0).getAmount());
+        assertEquals(transaction.getType(), decoded.get(0).getType());
+        assertEquals(transaction.getCurrency(), decoded.get(0).getCurrency());
+        assertEquals(transaction.getTimestamp(), decoded.get(0).getTimestamp());
+    }
+    // Test for the approximate analytics API
+    @Test
+    public void testGetAnalytics() throws Exception {
+        Map<String, Object> analytics = Map.of("transactions", 3,
+                "coverage", Map.of("coveredFrom", "2024-09-10", "partial", true));
+        when(transactionService.getApproximateAnalytics(LocalDate.of(2024, 9, 1), LocalDate.of(2024, 9, 30))).thenReturn(analytics);
+
+        mockMvc.perform(get("/api/transactions/analytics")
+                        .param("from", "2024-09-01")
+                        .param("to", "2024-09-30"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.transactions").value(3))
+                .andExpect(jsonPath("$.coverage.coveredFrom").value("2024-09-10"))
+                .andExpect(jsonPath("$.coverage.partial").value(true));
+    }
+    // Test for a window that ends before it starts
+    @Test
+    public void testGetAnalyticsInvalidWindow() throws Exception {
+        mockMvc.perform(get("/api/transactions/analytics")
+                        .param("from", "2024-09-30")
+                        .param("to", "2024-09-01"))
+                .andExpect(status().isBadRequest());
+        verify(transactionService, never()).getApproximateAnalytics(any(LocalDate.class), any(LocalDate.class));
+    }
+}
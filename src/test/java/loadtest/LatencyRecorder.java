@@ -0,0 +1,72 @@
+package loadtest;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects the latencies and errors of one operation of the load test.
+ */
+public class LatencyRecorder {
+    private final String name;
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong shed = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private long[] latencies = new long[1024];
+    private int count;
+
+    public LatencyRecorder(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Records one finished request.
+     *
+     * @param latencyNanos The time from the scheduled start of the request to its response.
+     * @param success      Whether the response had the expected status.
+     * @param rejected     Whether the server shed the request with 503; shed requests also count as errors.
+     * @param timedOut     Whether no response arrived within the request timeout; timeouts also count as errors.
+     */
+    public synchronized void record(long latencyNanos, boolean success, boolean rejected, boolean timedOut) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = latencyNanos;
+        if (!success) {
+            errors.incrementAndGet();
+        }
+        if (rejected) {
+            shed.incrementAndGet();
+        }
+        if (timedOut) {
+            timeouts.incrementAndGet();
+        }
+    }
+
+    public static String header() {
+        return String.format("%-18s %8s %8s %8s %8s %7s %9s %9s %9s %9s %9s %9s",
+                "operation", "count", "errors", "shed", "timeouts", "err%", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+    }
+
+    /**
+     * Formats the summary of this operation as one table row.
+     *
+     * @param durationSeconds The length of the measured run.
+     * @return The summary row.
+     */
+    public synchronized String summary(double durationSeconds) {
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        return String.format("%-18s %8d %8d %8d %8d %6.2f%% %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f",
+                name, count, errors.get(), shed.get(), timeouts.get(), count == 0 ? 0.0 : 100.0 * errors.get() / count, count / durationSeconds,
+                percentile(sorted, 50), percentile(sorted, 90), percentile(sorted, 99), percentile(sorted, 99.9),
+                count == 0 ? 0.0 : sorted[count - 1] / 1e6);
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
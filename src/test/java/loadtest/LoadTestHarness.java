@@ -0,0 +1,261 @@
+package loadtest;
+
+import com.example.kirana.KiranaApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.web.SecurityFilterChain;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Open-loop load test that replays a kirana store's traffic mix against the application.
+ *
+ * <p>Unless {@code loadtest.target} is set, the harness starts the application itself against a
+ * local MongoDB and a {@link StubFxServer}. The run is a compressed store day (07:00-22:00) with
+ * bursts at opening and closing time. Latency is measured from the time a request was scheduled,
+ * so a saturated server shows up in the percentiles instead of silently lowering the load.</p>
+ *
+ * <p>Run with {@code mvn -P load-test test-compile exec:java}. Settings (system properties):</p>
+ * <ul>
+ *     <li>loadtest.target - base URL of a running instance; if unset the app is started locally</li>
+ *     <li>loadtest.mongo.uri - MongoDB used by the local app (default mongodb://localhost:27017/kirana_loadtest)</li>
+ *     <li>loadtest.duration - measured run length in seconds (default 120)</li>
+ *     <li>loadtest.warmup - seconds of traffic before measuring (default 10)</li>
+ *     <li>loadtest.rps - base arrival rate outside of bursts (default 20)</li>
+ *     <li>loadtest.burst - arrival rate multiplier at the opening/closing peak (default 4)</li>
+ *     <li>loadtest.mix - operation weights (default addtransaction=60,weekly=15,monthly=10,yearly=5,login=7,register=3)</li>
+ *     <li>loadtest.users - users registered before the run for the login traffic (default 20)</li>
+ *     <li>loadtest.max-in-flight - cap on concurrent requests (default 512)</li>
+ *     <li>loadtest.request-timeout - seconds before a request counts as a timeout error (default 10)</li>
+ * </ul>
+ */
+public class LoadTestHarness {
+    private static final String PASSWORD = "loadtest-password";
+    private static final int STORE_OPENS = 7;
+    private static final int STORE_CLOSES = 22;
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final String baseUrl;
+    private final Map<String, Integer> mix;
+    private final Map<String, LatencyRecorder> recorders = new LinkedHashMap<>();
+    private final List<String> users = new ArrayList<>();
+    private final AtomicInteger registrations = new AtomicInteger();
+    private final String runId = UUID.randomUUID().toString().substring(0, 8);
+    private final Duration requestTimeout;
+
+    LoadTestHarness(String baseUrl, Map<String, Integer> mix, Duration requestTimeout) {
+        this.baseUrl = baseUrl;
+        this.mix = mix;
+        this.requestTimeout = requestTimeout;
+        mix.keySet().forEach(operation -> recorders.put(operation, new LatencyRecorder(operation)));
+    }
+
+    public static void main(String[] args) throws Exception {
+        String target = System.getProperty("loadtest.target");
+        Map<String, Integer> mix = parseMix(System.getProperty("loadtest.mix",
+                "addtransaction=60,weekly=15,monthly=10,yearly=5,login=7,register=3"));
+
+        StubFxServer fxServer = null;
+        ConfigurableApplicationContext app = null;
+        try {
+            if (target == null) {
+                fxServer = new StubFxServer();
+                app = new SpringApplicationBuilder(KiranaApplication.class, PermitAllSecurity.class).run(
+                        "--server.port=0",
+                        "--kirana.fx.url=" + fxServer.getUrl(),
+                        "--kirana.archive.dir=" + Files.createTempDirectory("kirana-loadtest-archive"),
+                        "--spring.data.mongodb.uri=" + System.getProperty("loadtest.mongo.uri", "mongodb://localhost:27017/kirana_loadtest"));
+                target = "http://localhost:" + app.getEnvironment().getProperty("local.server.port");
+            }
+
+            LoadTestHarness harness = new LoadTestHarness(target, mix,
+                    Duration.ofSeconds(Integer.getInteger("loadtest.request-timeout", 10)));
+            harness.seedUsers(Integer.getInteger("loadtest.users", 20));
+            harness.checkWrites();
+            harness.run(Integer.getInteger("loadtest.warmup", 10), Integer.getInteger("loadtest.duration", 120),
+                    Double.parseDouble(System.getProperty("loadtest.rps", "20")),
+                    Double.parseDouble(System.getProperty("loadtest.burst", "4")),
+                    Integer.getInteger("loadtest.max-in-flight", 512));
+        } finally {
+            if (app != null) {
+                app.close();
+            }
+            if (fxServer != null) {
+                fxServer.close();
+            }
+        }
+    }
+
+    /**
+     * Security settings for the locally started app: the harness measures the endpoints,
+     * not authentication, so every request is permitted and CSRF is off.
+     */
+    @Configuration
+    static class PermitAllSecurity {
+        @Bean
+        public SecurityFilterChain loadTestSecurityFilterChain(HttpSecurity http) throws Exception {
+            return http.csrf(csrf -> csrf.disable())
+                    .authorizeHttpRequests(requests -> requests.anyRequest().permitAll())
+                    .build();
+        }
+    }
+
+    void seedUsers(int count) throws Exception {
+        for (int i = 0; i < count; i++) {
+            String email = "seed-" + runId + "-" + i + "@loadtest.example";
+            HttpResponse<Void> response = client.send(registerRequest(email), HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() != 201) {
+                throw new IllegalStateException("Could not register load test user, status " + response.statusCode());
+            }
+            users.add(email);
+        }
+    }
+
+    // A write path that fails on every request would leave the reports scanning an empty collection
+    void checkWrites() throws Exception {
+        HttpResponse<String> response = client.send(
+                post("/api/transactions/addtransaction?amount=100&type=credit&currency=USD"), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 201) {
+            throw new IllegalStateException("Smoke addtransaction failed, status " + response.statusCode() + ": " + response.body());
+        }
+    }
+
+    void run(int warmupSeconds, int durationSeconds, double baseRps, double burst, int maxInFlight) throws InterruptedException {
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+        long nextArrival = start;
+
+        System.out.printf("Running %ds warmup + %ds against %s, base %.1f req/s, burst x%.1f%n",
+                warmupSeconds, durationSeconds, baseUrl, baseRps, burst);
+        while (nextArrival < end) {
+            long wait = nextArrival - System.nanoTime();
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+            String operation = pickOperation();
+            boolean measured = nextArrival >= measureFrom;
+            long scheduledAt = nextArrival;
+
+            inFlight.acquire();
+            client.sendAsync(request(operation), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        inFlight.release();
+                        if (measured) {
+                            boolean success = error == null && response.statusCode() == expectedStatus(operation);
+                            boolean rejected = error == null && response.statusCode() == 503;
+                            boolean timedOut = error instanceof HttpTimeoutException || (error != null && error.getCause() instanceof HttpTimeoutException);
+                            recorders.get(operation).record(System.nanoTime() - scheduledAt, success, rejected, timedOut);
+                        }
+                    });
+
+            // The whole run is one compressed store day
+            double dayFraction = (double) (nextArrival - start) / (end - start);
+            double hour = STORE_OPENS + dayFraction * (STORE_CLOSES - STORE_OPENS);
+            double rate = baseRps * trafficMultiplier(hour, burst);
+            nextArrival += (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        }
+        inFlight.acquire(maxInFlight);
+
+        System.out.println(LatencyRecorder.header());
+        recorders.values().forEach(recorder -> System.out.println(recorder.summary(durationSeconds)));
+    }
+
+    // Opening and closing rushes at full burst, a smaller lunch peak, quiet otherwise
+    static double trafficMultiplier(double hour, double burst) {
+        if (hour >= 8 && hour < 10) {
+            return burst;
+        }
+        if (hour >= 18 && hour < 21) {
+            return burst;
+        }
+        if (hour >= 12 && hour < 14) {
+            return 1 + (burst - 1) / 2;
+        }
+        return 1;
+    }
+
+    private String pickOperation() {
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        int pick = ThreadLocalRandom.current().nextInt(total);
+        for (Map.Entry<String, Integer> entry : mix.entrySet()) {
+            pick -= entry.getValue();
+            if (pick < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Empty traffic mix");
+    }
+
+    private HttpRequest request(String operation) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        switch (operation) {
+            case "addtransaction":
+                String type = random.nextInt(4) == 0 ? "debit" : "credit";
+                String currency = random.nextInt(10) == 0 ? "USD" : "INR";
+                return post("/api/transactions/addtransaction?amount=" + (10 + random.nextInt(2000))
+                        + "&type=" + type + "&currency=" + currency);
+            case "weekly":
+            case "monthly":
+            case "yearly":
+                return HttpRequest.newBuilder(URI.create(baseUrl + "/api/transactions/reports?type=" + operation))
+                        .timeout(requestTimeout)
+                        .GET().build();
+            case "login":
+                String email = users.get(random.nextInt(users.size()));
+                return post("/api/users/login?email=" + email + "&password=" + PASSWORD);
+            case "register":
+                return registerRequest("user-" + runId + "-" + registrations.incrementAndGet() + "@loadtest.example");
+            default:
+                throw new IllegalArgumentException("Unknown operation: " + operation);
+        }
+    }
+
+    private static int expectedStatus(String operation) {
+        return operation.equals("addtransaction") || operation.equals("register") ? 201 : 200;
+    }
+
+    private HttpRequest post(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(requestTimeout)
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+    }
+
+    private HttpRequest registerRequest(String email) {
+        String body = "{\"name\":\"Load Test\",\"email\":\"" + email + "\",\"password\":\"" + PASSWORD + "\"}";
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/api/users/register"))
+                .timeout(requestTimeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            weights.put(parts[0], Integer.parseInt(parts[1]));
+        }
+        return weights;
+    }
+}
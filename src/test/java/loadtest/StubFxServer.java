@@ -0,0 +1,100 @@
+package loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Minimal stand-in for the FX rates API, so load tests measure the application and not the
+ * external service. Answers {@code base} and {@code symbols} from a fixed table of INR rates,
+ * in the same shape as the real API.
+ */
+public class StubFxServer implements AutoCloseable {
+    // Value of one unit of each currency in INR
+    private static final Map<String, BigDecimal> INR_PER_UNIT = Map.of(
+            "INR", BigDecimal.ONE,
+            "USD", new BigDecimal("83.25"),
+            "EUR", new BigDecimal("90.10"),
+            "GBP", new BigDecimal("105.40"));
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    public StubFxServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/latest", this::answer);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * Returns the URL template to use as {@code kirana.fx.url}.
+     *
+     * @return The stub's conversion URL with {base} and {target} placeholders.
+     */
+    public String getUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + "/latest?base={base}&symbols={target}";
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    private void answer(HttpExchange exchange) throws IOException {
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        String base = query.getOrDefault("base", "USD").toUpperCase();
+        BigDecimal baseInInr = INR_PER_UNIT.get(base);
+        if (baseInInr == null) {
+            respond(exchange, 400, "{\"success\":false,\"error\":\"unknown base " + base + "\"}");
+            return;
+        }
+        StringJoiner rates = new StringJoiner(",", "{", "}");
+        String symbols = query.getOrDefault("symbols", String.join(",", INR_PER_UNIT.keySet()));
+        for (String symbol : symbols.split(",")) {
+            BigDecimal symbolInInr = INR_PER_UNIT.get(symbol.trim().toUpperCase());
+            if (symbolInInr != null) {
+                BigDecimal rate = baseInInr.divide(symbolInInr, 6, RoundingMode.HALF_EVEN).stripTrailingZeros();
+                rates.add("\"" + symbol.trim().toUpperCase() + "\":" + rate.toPlainString());
+            }
+        }
+        respond(exchange, 200, "{\"success\":true,\"base\":\"" + base + "\",\"rates\":" + rates + "}");
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int separator = pair.indexOf('=');
+            if (separator > 0) {
+                query.put(URLDecoder.decode(pair.substring(0, separator), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return query;
+    }
+}
@@ -0,0 +1,117 @@
+package repository;
+
+import com.example.kirana.Model.TransactionModel;
+import com.example.kirana.Repository.TransactionReportRepository;
+import com.mongodb.ConnectionString;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks against a real replica set that report scans do not raise the p99 of writes.
+ *
+ * <p>Needs a replica set with at least one secondary, e.g.
+ * {@code mvn test -Dtest=ReportReadIsolationTest -Dkirana.it.replica-set-uri=mongodb://h1,h2,h3/?replicaSet=rs0}.
+ * Skipped otherwise.</p>
+ */
+@EnabledIfSystemProperty(named = "kirana.it.replica-set-uri", matches = ".+")
+public class ReportReadIsolationTest {
+    private static final Logger log = LoggerFactory.getLogger(ReportReadIsolationTest.class);
+    private static final int SEEDED_ROWS = 200_000;
+    private static final int MEASURED_WRITES = 2_000;
+    private static final int REPORT_THREADS = 8;
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Test
+    public void testWriteP99UnaffectedByReportScans() throws Exception {
+        String uri = System.getProperty("kirana.it.replica-set-uri");
+        String database = "kirana_it_" + UUID.randomUUID().toString().substring(0, 8);
+        try (MongoClient primaryClient = MongoClients.create(uri)) {
+            MongoTemplate writes = new MongoTemplate(primaryClient, database);
+            try {
+                List<TransactionModel> seed = new ArrayList<>(SEEDED_ROWS);
+                for (int i = 0; i < SEEDED_ROWS; i++) {
+                    seed.add(transaction(START.plusMinutes(i)));
+                }
+                writes.insertAll(seed);
+
+                long[] baseline = timeWrites(writes);
+
+                TransactionReportRepository reports = new TransactionReportRepository(new ConnectionString(uri), database, null, 90, 10, 2000);
+                ExecutorService scanners = Executors.newFixedThreadPool(REPORT_THREADS);
+                AtomicBoolean running = new AtomicBoolean(true);
+                AtomicLong scans = new AtomicLong();
+                for (int i = 0; i < REPORT_THREADS; i++) {
+                    scanners.submit(() -> {
+                        while (running.get()) {
+                            reports.findByTimestampGreaterThanEqualAndTimestampLessThan(START, START.plusMinutes(SEEDED_ROWS));
+                            scans.incrementAndGet();
+                        }
+                    });
+                }
+                long[] underLoad;
+                try {
+                    underLoad = timeWrites(writes);
+                } finally {
+                    running.set(false);
+                    scanners.shutdown();
+                    scanners.awaitTermination(1, TimeUnit.MINUTES);
+                    reports.close();
+                }
+
+                double baselineP99 = p99Millis(baseline);
+                double underLoadP99 = p99Millis(underLoad);
+                String result = String.format("write p99 %.2f ms alone, %.2f ms during %d full report scans",
+                        baselineP99, underLoadP99, scans.get());
+                log.info(result);
+                // Reports run on secondaries, so the primary only sees noise; allow for that
+                assertTrue(underLoadP99 <= 2 * baselineP99 + 20, "write p99 rose under report load: " + result);
+            } finally {
+                primaryClient.getDatabase(database).drop();
+            }
+        }
+    }
+
+    private static long[] timeWrites(MongoTemplate writes) {
+        long[] latencies = new long[MEASURED_WRITES];
+        for (int i = 0; i < MEASURED_WRITES; i++) {
+            long start = System.nanoTime();
+            writes.insert(transaction(LocalDateTime.now()));
+            latencies[i] = System.nanoTime() - start;
+        }
+        return latencies;
+    }
+
+    private static double p99Millis(long[] latencies) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        return sorted[(int) Math.ceil(sorted.length * 0.99) - 1] / 1e6;
+    }
+
+    private static TransactionModel transaction(LocalDateTime timestamp) {
+        TransactionModel transaction = new TransactionModel();
+        transaction.setAmount(BigDecimal.valueOf(100));
+        transaction.setCurrency("INR");
+        transaction.setType(TransactionModel.TransactionType.CREDIT);
+        transaction.setTimestamp(timestamp);
+        return transaction;
+    }
+}
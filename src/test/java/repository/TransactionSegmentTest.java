@@ -0,0 +1,91 @@
+package repository;
+
+import com.example.kirana.Model.TransactionModel;
+import com.example.kirana.Repository.TransactionSegment;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TransactionSegmentTest {
+    @TempDir
+    Path tempDir;
+
+    private TransactionModel transaction(String amount, TransactionModel.TransactionType type, LocalDateTime timestamp) {
+        TransactionModel transaction = new TransactionModel();
+        transaction.setId(new ObjectId().toHexString());
+        transaction.setAmount(new BigDecimal(amount));
+        transaction.setCurrency("INR");
+        transaction.setType(type);
+        transaction.setTimestamp(timestamp);
+        return transaction;
+    }
+
+    private long millis(LocalDateTime timestamp) {
+        return timestamp.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        TransactionModel debit = transaction("250.75", TransactionModel.TransactionType.DEBIT, LocalDateTime.of(2023, 3, 14, 18, 5, 1));
+        TransactionModel credit = transaction("1000", TransactionModel.TransactionType.CREDIT, LocalDateTime.of(2023, 3, 2, 9, 30));
+        Path file = tempDir.resolve("transactions-2023-03.seg");
+
+        TransactionSegment.write(file, List.of(debit, credit));
+        List<TransactionModel> rows = TransactionSegment.open(file).readAll();
+
+        assertEquals(2, rows.size());
+        // Rows come back ordered by timestamp
+        assertEquals(credit.getId(), rows.get(0).getId());
+        assertEquals(credit.getTimestamp(), rows.get(0).getTimestamp());
+        assertEquals(0, credit.getAmount().compareTo(rows.get(0).getAmount()));
+        assertEquals(TransactionModel.TransactionType.CREDIT, rows.get(0).getType());
+        assertEquals("INR", rows.get(0).getCurrency());
+        assertEquals(debit.getId(), rows.get(1).getId());
+        assertEquals(0, debit.getAmount().compareTo(rows.get(1).getAmount()));
+        assertEquals(TransactionModel.TransactionType.DEBIT, rows.get(1).getType());
+    }
+
+    @Test
+    public void testFindWindow() throws Exception {
+        LocalDateTime first = LocalDateTime.of(2023, 3, 1, 0, 0);
+        LocalDateTime second = LocalDateTime.of(2023, 3, 15, 12, 0);
+        LocalDateTime third = LocalDateTime.of(2023, 3, 31, 23, 59);
+        Path file = tempDir.resolve("transactions-2023-03.seg");
+        TransactionSegment.write(file, List.of(
+                transaction("1", TransactionModel.TransactionType.CREDIT, first),
+                transaction("2", TransactionModel.TransactionType.CREDIT, second),
+                transaction("3", TransactionModel.TransactionType.DEBIT, third)));
+        TransactionSegment segment = TransactionSegment.open(file);
+
+        // Start is inclusive, end is exclusive
+        assertEquals(2, segment.find(millis(first), millis(third)).size());
+        assertEquals(1, segment.find(millis(second), millis(second) + 1).size());
+        assertEquals(2, segment.find(millis(second), millis(third.plusMinutes(1))).size());
+        assertEquals(0, segment.find(millis(third.plusMinutes(1)), millis(third.plusDays(2))).size());
+    }
+
+    // Amounts beyond 63 bits of unscaled value are kept exactly, not rounded
+    @Test
+    public void testRoundTripOfAmountsBeyondLong() throws Exception {
+        LocalDateTime timestamp = LocalDateTime.of(2023, 3, 14, 18, 5);
+        TransactionModel huge = transaction("123456789012345678901234567.891", TransactionModel.TransactionType.CREDIT, timestamp);
+        TransactionModel negative = transaction("-9223372036854775808", TransactionModel.TransactionType.DEBIT, timestamp.plusHours(1));
+        TransactionModel small = transaction("12.5", TransactionModel.TransactionType.CREDIT, timestamp.plusHours(2));
+        Path file = tempDir.resolve("transactions-2023-03.seg");
+
+        TransactionSegment.write(file, List.of(huge, negative, small));
+        List<TransactionModel> rows = TransactionSegment.open(file).readAll();
+
+        assertEquals(huge.getAmount(), rows.get(0).getAmount());
+        assertEquals(negative.getAmount(), rows.get(1).getAmount());
+        assertEquals(small.getAmount(), rows.get(2).getAmount());
+    }
+}
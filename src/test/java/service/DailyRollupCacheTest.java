@@ -0,0 +1,82 @@
+package service;
+
+import com.example.kirana.Model.DailyTotals;
+import com.example.kirana.Model.TransactionModel;
+import com.example.kirana.Service.DailyRollupCache;
+import com.example.kirana.Service.TransactionLookupService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class DailyRollupCacheTest {
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 2);
+
+    @Mock
+    private TransactionLookupService transactionLookupService;
+
+    @InjectMocks
+    private DailyRollupCache dailyRollupCache;
+
+    // Without a running change stream every request reloads the day
+    @Test
+    public void testBypassedWhileChangeStreamIsInactive() {
+        dailyRollupCache.getTotals(DAY, DAY.plusDays(1));
+        dailyRollupCache.getTotals(DAY, DAY.plusDays(1));
+
+        verify(transactionLookupService, times(2)).findByTimestampGreaterThanEqualAndTimestampLessThan(
+                any(LocalDateTime.class), any(LocalDateTime.class));
+    }
+
+    @Test
+    public void testCachedWhileChangeStreamIsActive() {
+        ReflectionTestUtils.setField(dailyRollupCache, "maxStalenessSeconds", 0L);
+        dailyRollupCache.setInvalidationActive(true);
+
+        dailyRollupCache.getTotals(DAY, DAY.plusDays(1));
+        dailyRollupCache.getTotals(DAY, DAY.plusDays(1));
+
+        verify(transactionLookupService, times(1)).findByTimestampGreaterThanEqualAndTimestampLessThan(
+                DAY.atStartOfDay(), DAY.plusDays(1).atStartOfDay());
+    }
+
+    // Missing days are read with one range query and split by day, also while the cache is bypassed
+    @Test
+    public void testMissingDaysLoadedWithOneQuery() {
+        LocalDate end = DAY.plusDays(3);
+        when(transactionLookupService.findByTimestampGreaterThanEqualAndTimestampLessThan(DAY.atStartOfDay(), end.atStartOfDay()))
+                .thenReturn(List.of(transaction(DAY, 10), transaction(DAY.plusDays(2), 7), transaction(DAY.plusDays(2), 3)));
+
+        List<DailyTotals> totals = dailyRollupCache.getTotals(DAY, end);
+
+        assertEquals(3, totals.size());
+        assertEquals(BigDecimal.valueOf(10), totals.get(0).getTotalCredits());
+        assertEquals(BigDecimal.ZERO, totals.get(1).getTotalCredits());
+        assertEquals(DAY.plusDays(2), totals.get(2).getDay());
+        assertEquals(BigDecimal.valueOf(10), totals.get(2).getTotalCredits());
+        verify(transactionLookupService, times(1)).findByTimestampGreaterThanEqualAndTimestampLessThan(
+                any(LocalDateTime.class), any(LocalDateTime.class));
+    }
+
+    private static TransactionModel transaction(LocalDate day, long amount) {
+        TransactionModel transaction = new TransactionModel();
+        transaction.setType(TransactionModel.TransactionType.CREDIT);
+        transaction.setAmount(BigDecimal.valueOf(amount));
+        transaction.setTimestamp(day.atTime(12, 0));
+        return transaction;
+    }
+}
@@ -0,0 +1,70 @@
+package service;
+
+import com.example.kirana.Model.TransactionModel;
+import com.example.kirana.Service.LiveReportPublisher;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+public class LiveReportPublisherTest {
+    private final LiveReportPublisher publisher = new LiveReportPublisher();
+
+    @AfterEach
+    public void tearDown() {
+        publisher.stopSending();
+    }
+
+    // A subscriber that cannot take updates is dropped instead of holding up the change-stream thread
+    @Test
+    public void testSlowSubscriberDoesNotBlockPublish() throws Exception {
+        CountDownLatch snapshotRead = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<?> subscribed = CompletableFuture.runAsync(() -> publisher.subscribe(LocalDate.now(), () -> {
+            snapshotRead.countDown();
+            await(release);
+            return List.of();
+        }));
+        snapshotRead.await(5, TimeUnit.SECONDS);
+
+        try {
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+                for (int i = 0; i < 2_000; i++) {
+                    publisher.publish(transaction(String.valueOf(i)));
+                }
+            });
+            assertEquals(0, ((List<?>) ReflectionTestUtils.getField(publisher, "subscribers")).size());
+        } finally {
+            release.countDown();
+        }
+        subscribed.get(5, TimeUnit.SECONDS);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static TransactionModel transaction(String id) {
+        TransactionModel transaction = new TransactionModel();
+        transaction.setId(id);
+        transaction.setAmount(BigDecimal.TEN);
+        transaction.setType(TransactionModel.TransactionType.CREDIT);
+        transaction.setTimestamp(LocalDateTime.now());
+        return transaction;
+    }
+}
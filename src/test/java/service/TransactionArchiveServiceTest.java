@@ -0,0 +1,109 @@
+package service;
+
+import com.example.kirana.Model.TransactionModel;
+import com.example.kirana.Repository.JobLockRepository;
+import com.example.kirana.Repository.TransactionArchiveRepository;
+import com.example.kirana.Repository.TransactionRepository;
+import com.example.kirana.Service.TransactionArchiveService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class TransactionArchiveServiceTest {
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private TransactionArchiveRepository transactionArchiveRepository;
+
+    @Mock
+    private JobLockRepository jobLockRepository;
+
+    @InjectMocks
+    private TransactionArchiveService archiveService;
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(archiveService, "minAgeMonths", 12);
+        ReflectionTestUtils.setField(archiveService, "leaseMinutes", 30L);
+    }
+
+    // Without the lease another instance is archiving, so nothing is read or deleted here
+    @Test
+    public void testSkipsWithoutLease() throws Exception {
+        when(jobLockRepository.tryAcquire(eq("transaction-archive"), anyString(), any(Duration.class))).thenReturn(false);
+
+        assertEquals(0, archiveService.archiveClosedMonths());
+
+        verifyNoInteractions(transactionRepository, transactionArchiveRepository);
+        verify(jobLockRepository, never()).release(anyString(), anyString());
+    }
+
+    // Archived rows are merged with the published segment and deleted by id, never by time range
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testArchivesMonthAndDeletesArchivedIds() throws Exception {
+        YearMonth month = YearMonth.now().minusMonths(13);
+        LocalDateTime start = month.atDay(1).atStartOfDay();
+        TransactionModel archived = transaction("65f000000000000000000001", start.plusDays(1));
+        TransactionModel live = transaction("65f000000000000000000002", start.plusDays(2));
+        when(jobLockRepository.tryAcquire(eq("transaction-archive"), anyString(), any(Duration.class))).thenReturn(true);
+        when(transactionRepository.findFirstByOrderByTimestampAsc()).thenReturn(live, (TransactionModel) null);
+        when(transactionArchiveRepository.findByMonth(month)).thenReturn(List.of(archived));
+        when(transactionRepository.findByTimestampGreaterThanEqualAndTimestampLessThan(start, start.plusMonths(1)))
+                .thenReturn(List.of(live));
+
+        assertEquals(1, archiveService.archiveClosedMonths());
+
+        ArgumentCaptor<List<TransactionModel>> segment = ArgumentCaptor.forClass(List.class);
+        verify(transactionArchiveRepository).save(eq(month), segment.capture());
+        assertEquals(List.of(archived.getId(), live.getId()), segment.getValue().stream().map(TransactionModel::getId).toList());
+        verify(transactionRepository).deleteAllById(List.of(live.getId()));
+        verify(jobLockRepository).release(eq("transaction-archive"), anyString());
+    }
+
+    // Months inside the retention window stay in MongoDB
+    @Test
+    public void testKeepsRecentMonths() throws Exception {
+        when(jobLockRepository.tryAcquire(eq("transaction-archive"), anyString(), any(Duration.class))).thenReturn(true);
+        when(transactionRepository.findFirstByOrderByTimestampAsc())
+                .thenReturn(transaction("65f000000000000000000003", LocalDateTime.now().minusMonths(2)));
+
+        assertEquals(0, archiveService.archiveClosedMonths());
+
+        verify(transactionArchiveRepository, never()).save(any(YearMonth.class), anyList());
+        verify(transactionRepository, never()).deleteAllById(any());
+    }
+
+    private static TransactionModel transaction(String id, LocalDateTime timestamp) {
+        TransactionModel transaction = new TransactionModel();
+        transaction.setId(id);
+        transaction.setAmount(BigDecimal.TEN);
+        transaction.setCurrency("INR");
+        transaction.setType(TransactionModel.TransactionType.CREDIT);
+        transaction.setTimestamp(timestamp);
+        return transaction;
+    }
+}
@@ -0,0 +1,119 @@
+package service;
+
+import com.example.kirana.Model.TransactionModel;
+import com.example.kirana.Service.DailyRollupCache;
+import com.example.kirana.Service.LiveReportPublisher;
+import com.example.kirana.Service.TransactionChangeListener;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.messaging.ChangeStreamRequest;
+import org.springframework.data.mongodb.core.messaging.Message;
+import org.springframework.data.mongodb.core.messaging.MessageListenerContainer;
+import org.springframework.data.mongodb.core.messaging.Subscription;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.ErrorHandler;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class TransactionChangeListenerTest {
+    @Mock
+    private MessageListenerContainer messageListenerContainer;
+
+    @Mock
+    private DailyRollupCache dailyRollupCache;
+
+    @Mock
+    private LiveReportPublisher liveReportPublisher;
+
+    @InjectMocks
+    private TransactionChangeListener changeListener;
+
+    // An insert only drops its own day and is pushed to the dashboards
+    @Test
+    public void testInsertInvalidatesItsDay() {
+        TransactionModel transaction = new TransactionModel();
+        transaction.setId("1");
+        transaction.setAmount(BigDecimal.TEN);
+        transaction.setType(TransactionModel.TransactionType.CREDIT);
+        transaction.setTimestamp(LocalDateTime.of(2024, 3, 2, 0, 0));
+
+        changeListener.onChange(message(OperationType.INSERT, transaction));
+
+        verify(dailyRollupCache).invalidate(transaction.getTimestamp().toLocalDate());
+        verify(dailyRollupCache, never()).invalidateAll();
+        verify(liveReportPublisher).publish(transaction);
+    }
+
+    // Updates and deletes cannot be attributed to a day, so every day is dropped
+    @Test
+    public void testUpdateAndDeleteInvalidateEveryDay() {
+        TransactionModel transaction = new TransactionModel();
+        transaction.setTimestamp(LocalDateTime.of(2024, 3, 2, 12, 0));
+
+        changeListener.onChange(message(OperationType.UPDATE, transaction));
+        changeListener.onChange(message(OperationType.DELETE, null));
+
+        verify(dailyRollupCache, times(2)).invalidateAll();
+        verify(liveReportPublisher, never()).publish(any());
+    }
+
+    // A stopped subscription bypasses the cache and is registered again
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testInactiveSubscriptionIsRestarted() {
+        Subscription subscription = mock(Subscription.class);
+        when(messageListenerContainer.register(any(ChangeStreamRequest.class), eq(TransactionModel.class), any(ErrorHandler.class)))
+                .thenReturn(subscription);
+        changeListener.subscribe();
+
+        changeListener.checkSubscription();
+
+        verify(dailyRollupCache).setInvalidationActive(false);
+        verify(messageListenerContainer).remove(subscription);
+        verify(messageListenerContainer, times(2)).register(any(ChangeStreamRequest.class), eq(TransactionModel.class), any(ErrorHandler.class));
+    }
+
+    // On a server without change streams restarts are spaced out instead of retried every check
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testFailingRestartsBackOff() {
+        ReflectionTestUtils.setField(changeListener, "checkIntervalMs", 60_000L);
+        ReflectionTestUtils.setField(changeListener, "maxBackoffMs", 300_000L);
+        Subscription subscription = mock(Subscription.class);
+        when(messageListenerContainer.register(any(ChangeStreamRequest.class), eq(TransactionModel.class), any(ErrorHandler.class)))
+                .thenReturn(subscription);
+        changeListener.subscribe();
+
+        changeListener.checkSubscription();
+        changeListener.checkSubscription();
+        changeListener.checkSubscription();
+
+        verify(messageListenerContainer, times(2)).register(any(ChangeStreamRequest.class), eq(TransactionModel.class), any(ErrorHandler.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Message<ChangeStreamDocument<Document>, TransactionModel> message(OperationType operationType, TransactionModel body) {
+        ChangeStreamDocument<Document> raw = mock(ChangeStreamDocument.class);
+        when(raw.getOperationType()).thenReturn(operationType);
+        Message<ChangeStreamDocument<Document>, TransactionModel> message = mock(Message.class);
+        when(message.getRaw()).thenReturn(raw);
+        when(message.getBody()).thenReturn(body);
+        return message;
+    }
+}
@@ -0,0 +1,86 @@
+package service;
+
+import com.example.kirana.Model.TransactionModel;
+import com.example.kirana.Repository.TransactionArchiveRepository;
+import com.example.kirana.Repository.TransactionReportRepository;
+import com.example.kirana.Service.TransactionLookupService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class TransactionLookupServiceTest {
+    private static final LocalDateTime ARCHIVED_UNTIL = LocalDateTime.of(2024, 4, 1, 0, 0);
+
+    @Mock
+    private TransactionArchiveRepository transactionArchiveRepository;
+
+    @Mock
+    private TransactionReportRepository transactionReportRepository;
+
+    @InjectMocks
+    private TransactionLookupService lookupService;
+
+    // A window across the watermark reads the archive up to it and MongoDB from it on
+    @Test
+    public void testWindowAcrossWatermarkIsSplit() {
+        LocalDateTime start = LocalDateTime.of(2024, 3, 20, 0, 0);
+        LocalDateTime end = LocalDateTime.of(2024, 4, 10, 0, 0);
+        when(transactionArchiveRepository.getArchivedUntil()).thenReturn(ARCHIVED_UNTIL);
+        when(transactionArchiveRepository.findByTimestampBetween(start, ARCHIVED_UNTIL)).thenReturn(List.of(transaction("a")));
+        when(transactionReportRepository.findByTimestampGreaterThanEqualAndTimestampLessThan(ARCHIVED_UNTIL, end))
+                .thenReturn(List.of(transaction("b")));
+
+        List<TransactionModel> transactions = lookupService.findByTimestampBetween(start, end);
+
+        assertEquals(List.of("a", "b"), transactions.stream().map(TransactionModel::getId).toList());
+        verify(transactionReportRepository, never()).findByTimestampBetween(any(), any());
+    }
+
+    // A window after the watermark never touches the archive
+    @Test
+    public void testWindowAfterWatermarkReadsMongoOnly() {
+        LocalDateTime start = ARCHIVED_UNTIL;
+        LocalDateTime end = LocalDateTime.of(2024, 4, 10, 0, 0);
+        when(transactionArchiveRepository.getArchivedUntil()).thenReturn(ARCHIVED_UNTIL);
+
+        lookupService.findByTimestampGreaterThanEqualAndTimestampLessThan(start, end);
+
+        verify(transactionReportRepository).findByTimestampGreaterThanEqualAndTimestampLessThan(start, end);
+        verify(transactionArchiveRepository, never()).findByTimestampGreaterThanEqualAndTimestampLessThan(any(), any());
+    }
+
+    // If the archive job moves the watermark during the read, the read is repeated with the new one
+    @Test
+    public void testReadIsRepeatedWhenWatermarkMoves() {
+        LocalDateTime start = LocalDateTime.of(2024, 4, 5, 0, 0);
+        LocalDateTime end = LocalDateTime.of(2024, 5, 10, 0, 0);
+        LocalDateTime movedUntil = LocalDateTime.of(2024, 5, 1, 0, 0);
+        when(transactionArchiveRepository.getArchivedUntil()).thenReturn(ARCHIVED_UNTIL, movedUntil, movedUntil);
+        when(transactionArchiveRepository.findByTimestampBetween(start, movedUntil)).thenReturn(List.of(transaction("a")));
+        when(transactionReportRepository.findByTimestampGreaterThanEqualAndTimestampLessThan(movedUntil, end))
+                .thenReturn(List.of(transaction("b")));
+
+        List<TransactionModel> transactions = lookupService.findByTimestampBetween(start, end);
+
+        assertEquals(List.of("a", "b"), transactions.stream().map(TransactionModel::getId).toList());
+        verify(transactionReportRepository).findByTimestampBetween(start, end);
+    }
+
+    private static TransactionModel transaction(String id) {
+        TransactionModel transaction = new TransactionModel();
+        transaction.setId(id);
+        return transaction;
+    }
+}
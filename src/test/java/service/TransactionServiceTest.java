@@ -0,0 +1,107 @@
+package service;
+
+import com.example.kirana.Model.DailyTotals;
+import com.example.kirana.Model.TransactionModel;
+import com.example.kirana.Service.DailyRollupCache;
+import com.example.kirana.Service.TransactionLookupService;
+import com.example.kirana.Service.TransactionService;
+import loadtest.StubFxServer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class TransactionServiceTest {
+    @Mock
+    private TransactionLookupService transactionLookupService;
+
+    @Mock
+    private DailyRollupCache dailyRollupCache;
+
+    @InjectMocks
+    private TransactionService transactionService;
+
+    // Whole days come from the rollups, only the partial edge days are scanned
+    @Test
+    public void testReportUsesRollupsForWholeDays() {
+        LocalDateTime start = LocalDateTime.of(2024, 3, 1, 10, 0);
+        LocalDateTime end = LocalDateTime.of(2024, 3, 4, 15, 0);
+        when(transactionLookupService.findByTimestampBetween(start, LocalDateTime.of(2024, 3, 2, 0, 0)))
+                .thenReturn(List.of(transaction(TransactionModel.TransactionType.CREDIT, 100)));
+        when(transactionLookupService.findByTimestampGreaterThanEqualAndTimestampLessThan(LocalDateTime.of(2024, 3, 4, 0, 0), end))
+                .thenReturn(List.of(transaction(TransactionModel.TransactionType.DEBIT, 30)));
+        when(dailyRollupCache.getTotals(LocalDate.of(2024, 3, 2), LocalDate.of(2024, 3, 4))).thenReturn(List.of(
+                new DailyTotals(LocalDate.of(2024, 3, 2), BigDecimal.valueOf(50), BigDecimal.valueOf(10)),
+                new DailyTotals(LocalDate.of(2024, 3, 3), BigDecimal.valueOf(20), BigDecimal.ZERO)));
+
+        Map<String, BigDecimal> report = transactionService.generateFinancialReport(start, end);
+
+        assertEquals(BigDecimal.valueOf(170), report.get("totalCredits"));
+        assertEquals(BigDecimal.valueOf(40), report.get("totalDebits"));
+        assertEquals(BigDecimal.valueOf(130), report.get("netFlow"));
+    }
+
+    // The start is exclusive, so a midnight start scans the rest of its day; a midnight end leaves an empty tail
+    @Test
+    public void testReportMidnightEdges() {
+        LocalDateTime start = LocalDateTime.of(2024, 3, 1, 0, 0);
+        LocalDateTime end = LocalDateTime.of(2024, 3, 3, 0, 0);
+        when(dailyRollupCache.getTotals(any(LocalDate.class), any(LocalDate.class)))
+                .thenReturn(List.of(new DailyTotals(LocalDate.of(2024, 3, 2), BigDecimal.valueOf(5), BigDecimal.ZERO)));
+
+        Map<String, BigDecimal> report = transactionService.generateFinancialReport(start, end);
+
+        assertEquals(BigDecimal.valueOf(5), report.get("totalCredits"));
+        verify(transactionLookupService).findByTimestampBetween(start, LocalDateTime.of(2024, 3, 2, 0, 0));
+        verify(transactionLookupService).findByTimestampGreaterThanEqualAndTimestampLessThan(end, end);
+        // Only 2024-03-02 is a whole day
+        verify(dailyRollupCache).getTotals(LocalDate.of(2024, 3, 2), LocalDate.of(2024, 3, 3));
+    }
+
+    // A window without a whole day inside it is scanned directly
+    @Test
+    public void testReportWithoutWholeDay() {
+        LocalDateTime start = LocalDateTime.of(2024, 3, 1, 8, 0);
+        LocalDateTime end = LocalDateTime.of(2024, 3, 2, 6, 0);
+        when(transactionLookupService.findByTimestampBetween(start, end))
+                .thenReturn(List.of(transaction(TransactionModel.TransactionType.CREDIT, 70)));
+
+        Map<String, BigDecimal> report = transactionService.generateFinancialReport(start, end);
+
+        assertEquals(BigDecimal.valueOf(70), report.get("netFlow"));
+        verifyNoInteractions(dailyRollupCache);
+    }
+
+    // The rates API returns JSON numbers, which Jackson reads as Double
+    @Test
+    public void testConvertCurrencyUsesRateForBase() throws Exception {
+        try (StubFxServer fxServer = new StubFxServer()) {
+            ReflectionTestUtils.setField(transactionService, "currencyConversionApiUrl", fxServer.getUrl());
+
+            assertEquals(0, new BigDecimal("832.50").compareTo(transactionService.convertCurrency(BigDecimal.TEN, "USD", "INR")));
+            assertEquals(0, BigDecimal.TEN.compareTo(transactionService.convertCurrency(BigDecimal.TEN, "INR", "INR")));
+        }
+    }
+
+    private static TransactionModel transaction(TransactionModel.TransactionType type, long amount) {
+        TransactionModel transaction = new TransactionModel();
+        transaction.setType(type);
+        transaction.setAmount(BigDecimal.valueOf(amount));
+        return transaction;
+    }
+}
@@ -0,0 +1,193 @@
+package service;
+
+import com.example.kirana.Model.DailySketchModel;
+import com.example.kirana.Model.TransactionModel;
+import com.example.kirana.Repository.DailySketchRepository;
+import com.example.kirana.Repository.JobLockRepository;
+import com.example.kirana.Service.TransactionSketchService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class TransactionSketchServiceTest {
+    @Mock
+    private DailySketchRepository dailySketchRepository;
+
+    @Mock
+    private JobLockRepository jobLockRepository;
+
+    private TransactionSketchService sketchService;
+
+    private final LocalDate today = LocalDate.now();
+
+    @BeforeEach
+    public void setUp() {
+        sketchService = sketchService(dailySketchRepository);
+        ReflectionTestUtils.setField(sketchService, "jobLockRepository", jobLockRepository);
+    }
+
+    // Other instances' days are merged; this instance's persisted copy gives way to its newer in-memory state
+    @Test
+    public void testMergesOtherInstancesAndSkipsOwnPersistedCopy() {
+        DailySketchModel otherInstance = flushed(today, 1);
+        sketchService.record(transaction(today), "usd");
+        DailySketchModel ownCopy = flushedBy(sketchService, dailySketchRepository);
+        sketchService.record(transaction(today), "inr");
+        when(dailySketchRepository.findByDayGreaterThanEqualAndDayLessThanEqualAndInstanceIdNot(today, today, "merged-month")).thenReturn(List.of(otherInstance, ownCopy));
+
+        Map<String, Object> analytics = sketchService.getAnalytics(today, today);
+
+        assertEquals(3L, analytics.get("transactions"));
+    }
+
+    // A day dropped from memory by a flush is still counted from its persisted copy
+    @Test
+    public void testFlushedOldDayIsCountedFromMongo() {
+        LocalDate old = today.minusDays(3);
+        sketchService.record(transaction(old), "inr");
+        DailySketchModel ownCopy = flushedBy(sketchService, dailySketchRepository);
+        when(dailySketchRepository.findByDayGreaterThanEqualAndDayLessThanEqualAndInstanceIdNot(old, old, "merged-month")).thenReturn(List.of(ownCopy));
+
+        Map<String, Object> analytics = sketchService.getAnalytics(old, old);
+
+        assertEquals(1L, analytics.get("transactions"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testWindowBeforeFirstSketchIsPartial() {
+        DailySketchModel first = flushed(today.minusDays(10), 1);
+        when(dailySketchRepository.findFirstByInstanceIdNotOrderByDayAsc("merged-month")).thenReturn(first);
+
+        Map<String, Object> coverage = (Map<String, Object>) sketchService.getAnalytics(today.minusDays(30), today).get("coverage");
+        assertEquals(today.minusDays(10).toString(), coverage.get("coveredFrom"));
+        assertEquals(true, coverage.get("partial"));
+
+        coverage = (Map<String, Object>) sketchService.getAnalytics(today.minusDays(5), today).get("coverage");
+        assertEquals(false, coverage.get("partial"));
+    }
+
+    // The instances' documents of a closed day become one; a retry after a failed delete does not count them twice
+    @Test
+    public void testCompactionMergesClosedDayOnce() {
+        LocalDate old = today.minusDays(5);
+        List<DailySketchModel> sources = List.of(flushed(old, 1), flushed(old, 2));
+        Map<String, DailySketchModel> saved = new HashMap<>();
+        when(jobLockRepository.tryAcquire(eq("sketch-compaction"), anyString(), any())).thenReturn(true);
+        when(dailySketchRepository.findByDayLessThanAndInstanceIdNotIn(eq(today.minusDays(2)), any())).thenReturn(sources);
+        when(dailySketchRepository.findById(anyString())).thenAnswer(invocation -> Optional.ofNullable(saved.get(invocation.<String>getArgument(0))));
+        when(dailySketchRepository.save(any())).thenAnswer(invocation -> {
+            DailySketchModel model = invocation.getArgument(0);
+            saved.put(model.getId(), model);
+            return model;
+        });
+
+        sketchService.compactClosedDays();
+        sketchService.compactClosedDays();
+
+        DailySketchModel mergedDay = saved.get(old + "_merged");
+        assertEquals(3L, mergedDay.getCount());
+        assertEquals(List.of(sources.get(0).getId(), sources.get(1).getId()), mergedDay.getMergedIds());
+        verify(dailySketchRepository, atLeastOnce()).delete(sources.get(0));
+        verify(dailySketchRepository, atLeastOnce()).delete(sources.get(1));
+    }
+
+    @Test
+    public void testCompactionMergesClosedMonths() {
+        YearMonth month = YearMonth.from(today.minusDays(2)).minusMonths(1);
+        DailySketchModel firstDay = merged(month.atDay(1), "merged", 2);
+        DailySketchModel lastDay = merged(month.atEndOfMonth(), "merged", 3);
+        when(jobLockRepository.tryAcquire(eq("sketch-compaction"), anyString(), any())).thenReturn(true);
+        when(dailySketchRepository.findFirstByInstanceIdOrderByDayAsc("merged")).thenReturn(firstDay);
+        when(dailySketchRepository.findByInstanceIdAndDayGreaterThanEqualAndDayLessThanEqualOrderByDayAsc("merged", month.atDay(1), month.atEndOfMonth()))
+                .thenReturn(List.of(firstDay, lastDay));
+
+        sketchService.compactClosedDays();
+
+        ArgumentCaptor<DailySketchModel> saved = ArgumentCaptor.forClass(DailySketchModel.class);
+        verify(dailySketchRepository).save(saved.capture());
+        assertEquals(month.atDay(1) + "_merged-month", saved.getValue().getId());
+        assertEquals(5L, saved.getValue().getCount());
+    }
+
+    // A month inside the window is read from its one document; only the days after it are read per day
+    @Test
+    public void testWindowReadsWholeMonthsFromMergedMonth() {
+        YearMonth month = YearMonth.from(today).minusMonths(2);
+        LocalDate dayAfter = month.atEndOfMonth().plusDays(1);
+        when(dailySketchRepository.findByInstanceIdAndDayGreaterThanEqualAndDayLessThanEqualOrderByDayAsc("merged-month", month.atDay(1), dayAfter))
+                .thenReturn(List.of(merged(month.atDay(1), "merged-month", 5)));
+        when(dailySketchRepository.findByDayGreaterThanEqualAndDayLessThanEqualAndInstanceIdNot(dayAfter, dayAfter, "merged-month"))
+                .thenReturn(List.of(merged(dayAfter, "merged", 1)));
+
+        Map<String, Object> analytics = sketchService.getAnalytics(month.atDay(1), dayAfter);
+
+        assertEquals(6L, analytics.get("transactions"));
+        verify(dailySketchRepository, never()).findByDayGreaterThanEqualAndDayLessThanEqualAndInstanceIdNot(eq(month.atDay(1)), any(), any());
+    }
+
+    // A merged day or month document with the given number of transactions
+    private static DailySketchModel merged(LocalDate day, String instanceId, int transactions) {
+        DailySketchModel model = flushed(day, transactions);
+        model.setId(day + "_" + instanceId);
+        model.setInstanceId(instanceId);
+        return model;
+    }
+
+    // Sketches flushed by another instance
+    private static DailySketchModel flushed(LocalDate day, int transactions) {
+        DailySketchRepository repository = mock(DailySketchRepository.class);
+        TransactionSketchService other = sketchService(repository);
+        for (int i = 0; i < transactions; i++) {
+            other.record(transaction(day), "inr");
+        }
+        return flushedBy(other, repository);
+    }
+
+    private static DailySketchModel flushedBy(TransactionSketchService service, DailySketchRepository repository) {
+        service.flush();
+        ArgumentCaptor<DailySketchModel> saved = ArgumentCaptor.forClass(DailySketchModel.class);
+        verify(repository, atLeastOnce()).save(saved.capture());
+        return saved.getValue();
+    }
+
+    private static TransactionSketchService sketchService(DailySketchRepository repository) {
+        TransactionSketchService service = new TransactionSketchService();
+        ReflectionTestUtils.setField(service, "dailySketchRepository", repository);
+        return service;
+    }
+
+    private static TransactionModel transaction(LocalDate day) {
+        TransactionModel transaction = new TransactionModel();
+        transaction.setAmount(BigDecimal.valueOf(250));
+        transaction.setCurrency("INR");
+        transaction.setType(TransactionModel.TransactionType.CREDIT);
+        transaction.setTimestamp(LocalDateTime.of(day, LocalTime.NOON));
+        return transaction;
+    }
+}
@@ -0,0 +1,87 @@
+package service;
+
+import com.example.kirana.Model.UserModel;
+import com.example.kirana.Service.UserEmailIndexService;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class UserEmailIndexServiceTest {
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private IndexOperations indexOperations;
+
+    @InjectMocks
+    private UserEmailIndexService userEmailIndexService;
+
+    @Test
+    public void testCreatesIndexWithoutDuplicates() {
+        duplicates();
+        when(mongoTemplate.indexOps(UserModel.class)).thenReturn(indexOperations);
+
+        userEmailIndexService.ensureUniqueIndex();
+
+        verify(indexOperations).ensureIndex(any(IndexDefinition.class));
+        assertTrue(userEmailIndexService.isUniqueIndexActive());
+    }
+
+    // Existing duplicates must not stop the application from starting
+    @Test
+    public void testStartsWithoutIndexWhenDuplicatesExist() {
+        duplicates("a@example.com");
+
+        userEmailIndexService.ensureUniqueIndex();
+
+        verify(mongoTemplate, never()).indexOps(UserModel.class);
+        assertFalse(userEmailIndexService.isUniqueIndexActive());
+    }
+
+    @Test
+    public void testDedupeKeepsOldestAccount() {
+        ReflectionTestUtils.setField(userEmailIndexService, "dedupeEmails", true);
+        duplicates("a@example.com");
+        when(mongoTemplate.getCollectionName(UserModel.class)).thenReturn("users");
+        Document oldest = new Document("_id", "1").append("email", "a@example.com");
+        Document newer = new Document("_id", "2").append("email", "a@example.com");
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("users"))).thenReturn(List.of(oldest, newer));
+        when(mongoTemplate.indexOps(UserModel.class)).thenReturn(indexOperations);
+
+        userEmailIndexService.ensureUniqueIndex();
+
+        verify(mongoTemplate).save(newer, "users_duplicate_emails");
+        verify(mongoTemplate, never()).save(oldest, "users_duplicate_emails");
+        verify(mongoTemplate, times(1)).remove(any(Query.class), eq("users"));
+        assertTrue(userEmailIndexService.isUniqueIndexActive());
+    }
+
+    private void duplicates(String... emails) {
+        List<Document> results = Arrays.stream(emails).map(email -> new Document("_id", email).append("count", 2)).toList();
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(UserModel.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(results, new Document()));
+    }
+}
@@ -0,0 +1,153 @@
+package service;
+
+import com.example.kirana.Model.UserModel;
+import com.example.kirana.Repository.UserRepository;
+import com.example.kirana.Service.EmailExistenceFilter;
+import com.example.kirana.Service.UserEmailIndexService;
+import com.example.kirana.Service.UserService;
+import com.example.kirana.Utils.RateLimitExceededException;
+import com.example.kirana.Utils.UserRegistrationDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class UserServiceTest {
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private BCryptPasswordEncoder passwordEncoder;
+
+    @Mock
+    private EmailExistenceFilter emailExistenceFilter;
+
+    @Mock
+    private UserEmailIndexService userEmailIndexService;
+
+    @InjectMocks
+    private UserService userService;
+
+    private UserRegistrationDTO userDto;
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(userService, "passwordHashingThreads", 1);
+        ReflectionTestUtils.setField(userService, "passwordHashingQueue", 1);
+        ReflectionTestUtils.setField(userService, "passwordHashingMaxWaitMs", 1000L);
+        userService.startPasswordHashing();
+
+        userDto = new UserRegistrationDTO();
+        userDto.setName("John Doe");
+        userDto.setEmail("john.doe@example.com");
+        userDto.setPassword("password123");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        userService.stopPasswordHashing();
+    }
+
+    // A negative from the email filter skips the database lookup
+    @Test
+    public void testRegisterNewEmailSkipsLookup() {
+        when(userEmailIndexService.isUniqueIndexActive()).thenReturn(true);
+        when(emailExistenceFilter.mightExist(userDto.getEmail())).thenReturn(false);
+        when(passwordEncoder.encode("password123")).thenReturn("hashed");
+        when(userRepository.save(any(UserModel.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        UserModel user = userService.registerUser(userDto);
+
+        assertEquals("hashed", user.getPassword());
+        assertEquals("ROLE_READ_ONLY", user.getRole());
+        verify(userRepository, never()).findByEmail(anyString());
+        verify(emailExistenceFilter).add(userDto.getEmail());
+    }
+
+    // A known email is rejected before the password is hashed
+    @Test
+    public void testRegisterExistingEmail() {
+        when(userEmailIndexService.isUniqueIndexActive()).thenReturn(true);
+        when(emailExistenceFilter.mightExist(userDto.getEmail())).thenReturn(true);
+        when(userRepository.findByEmail(userDto.getEmail())).thenReturn(new UserModel());
+
+        assertThrows(IllegalArgumentException.class, () -> userService.registerUser(userDto));
+        verify(passwordEncoder, never()).encode(anyString());
+    }
+
+    // A duplicate registered concurrently or by another instance is caught by the unique index
+    @Test
+    public void testRegisterDuplicateKey() {
+        when(userEmailIndexService.isUniqueIndexActive()).thenReturn(true);
+        when(emailExistenceFilter.mightExist(userDto.getEmail())).thenReturn(false);
+        when(passwordEncoder.encode("password123")).thenReturn("hashed");
+        when(userRepository.save(any(UserModel.class))).thenThrow(new DuplicateKeyException("E11000"));
+
+        assertThrows(IllegalArgumentException.class, () -> userService.registerUser(userDto));
+        verify(emailExistenceFilter).add(userDto.getEmail());
+    }
+
+    // A missing email is a bad request, not a failure inside the email filter
+    @Test
+    public void testRegisterWithoutEmail() {
+        userDto.setEmail(null);
+        assertThrows(IllegalArgumentException.class, () -> userService.registerUser(userDto));
+
+        userDto.setEmail("  ");
+        assertThrows(IllegalArgumentException.class, () -> userService.registerUser(userDto));
+
+        verify(emailExistenceFilter, never()).mightExist(any());
+        verify(userRepository, never()).save(any(UserModel.class));
+    }
+
+    // Without the unique index nothing would catch a duplicate, so the filter is not trusted
+    @Test
+    public void testRegisterWithoutUniqueIndexLooksUpEmail() {
+        when(userEmailIndexService.isUniqueIndexActive()).thenReturn(false);
+        when(userRepository.findByEmail(userDto.getEmail())).thenReturn(new UserModel());
+
+        assertThrows(IllegalArgumentException.class, () -> userService.registerUser(userDto));
+        verify(emailExistenceFilter, never()).mightExist(anyString());
+    }
+
+    // A registration waiting too long for a hashing slot fails fast instead of holding the request thread
+    @Test
+    public void testRegisterFailsFastWhenHashingIsBusy() throws Exception {
+        ReflectionTestUtils.setField(userService, "passwordHashingMaxWaitMs", 50L);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userEmailIndexService.isUniqueIndexActive()).thenReturn(true);
+        when(emailExistenceFilter.mightExist(userDto.getEmail())).thenReturn(false);
+        when(passwordEncoder.encode("password123")).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return "hashed";
+        });
+
+        long start = System.nanoTime();
+        try {
+            assertThrows(RateLimitExceededException.class, () -> userService.registerUser(userDto));
+        } finally {
+            release.countDown();
+        }
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+        verify(userRepository, never()).save(any(UserModel.class));
+    }
+}
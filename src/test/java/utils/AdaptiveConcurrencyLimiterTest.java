@@ -0,0 +1,155 @@
+package utils;
+
+import com.example.kirana.Utils.AdaptiveConcurrencyLimiter;
+import com.example.kirana.Utils.AdaptiveConcurrencyLimiter.Priority;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AdaptiveConcurrencyLimiterTest {
+    private static final long SLOW = -1;
+    private static final long FAST = TimeUnit.SECONDS.toNanos(10);
+
+    @Test
+    public void testLongReportsAreShedBeforeWrites() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 4, 4, 10);
+
+        // Long reports may only use half of the limit
+        assertNotNull(limiter.tryAcquire(Priority.LONG_REPORT, 0, TimeUnit.MILLISECONDS));
+        assertNotNull(limiter.tryAcquire(Priority.LONG_REPORT, 0, TimeUnit.MILLISECONDS));
+        assertNull(limiter.tryAcquire(Priority.LONG_REPORT, 0, TimeUnit.MILLISECONDS));
+
+        assertNotNull(limiter.tryAcquire(Priority.WRITE, 0, TimeUnit.MILLISECONDS));
+        assertNotNull(limiter.tryAcquire(Priority.WRITE, 0, TimeUnit.MILLISECONDS));
+        assertNull(limiter.tryAcquire(Priority.WRITE, 0, TimeUnit.MILLISECONDS));
+    }
+
+    // Password hashing is CPU-bound, so registration and login only get a small share and never crowd out writes
+    @Test
+    public void testAuthIsLimitedToItsShare() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 10, 10, 10);
+
+        for (int i = 0; i < 3; i++) {
+            assertNotNull(limiter.tryAcquire(Priority.AUTH, 0, TimeUnit.MILLISECONDS));
+        }
+        assertNull(limiter.tryAcquire(Priority.AUTH, 0, TimeUnit.MILLISECONDS));
+        assertNotNull(limiter.tryAcquire(Priority.SHORT_REPORT, 0, TimeUnit.MILLISECONDS));
+        assertNotNull(limiter.tryAcquire(Priority.WRITE, 0, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testQueuedWriteGetsReleasedSlot() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, 10);
+        AdaptiveConcurrencyLimiter.Permit running = limiter.tryAcquire(Priority.WRITE, 0, TimeUnit.MILLISECONDS);
+
+        CompletableFuture<AdaptiveConcurrencyLimiter.Permit> queued = CompletableFuture.supplyAsync(() -> {
+            try {
+                return limiter.tryAcquire(Priority.WRITE, 5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(100);
+        running.release(FAST);
+
+        assertNotNull(queued.get(5, TimeUnit.SECONDS));
+        assertEquals(1, limiter.getInFlight());
+    }
+
+    @Test
+    public void testFullQueueShedsLowestClass() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, 1);
+        limiter.tryAcquire(Priority.WRITE, 0, TimeUnit.MILLISECONDS);
+
+        CompletableFuture<AdaptiveConcurrencyLimiter.Permit> report = CompletableFuture.supplyAsync(() -> {
+            try {
+                return limiter.tryAcquire(Priority.LONG_REPORT, 5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(100);
+        CompletableFuture<AdaptiveConcurrencyLimiter.Permit> write = CompletableFuture.supplyAsync(() -> {
+            try {
+                return limiter.tryAcquire(Priority.WRITE, 100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        // The queued report makes room for the write, which then times out on the busy slot
+        assertNull(report.get(5, TimeUnit.SECONDS));
+        assertNull(write.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testLimitAdaptsToLatency() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 4, 200, 10);
+
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire(Priority.WRITE, 0, TimeUnit.MILLISECONDS).release(SLOW);
+        }
+        assertEquals(6, limiter.getLimit());
+
+        AdaptiveConcurrencyLimiter.Permit[] permits = new AdaptiveConcurrencyLimiter.Permit[6];
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < permits.length; i++) {
+                permits[i] = limiter.tryAcquire(Priority.WRITE, 0, TimeUnit.MILLISECONDS);
+            }
+            for (AdaptiveConcurrencyLimiter.Permit permit : permits) {
+                if (permit != null) {
+                    permit.release(FAST);
+                }
+            }
+        }
+        assertTrue(limiter.getLimit() > 6);
+    }
+
+    // Slow reports are expected; only slow writes mean overload
+    @Test
+    public void testSlowReportsDoNotShrinkLimit() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 4, 200, 10);
+
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire(Priority.LONG_REPORT, 0, TimeUnit.MILLISECONDS).release(SLOW);
+        }
+        assertEquals(20, limiter.getLimit());
+    }
+
+    // A waiter interrupted right after being granted must not keep the slot
+    @Test
+    public void testInterruptedWaiterDoesNotLeakSlot() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, 10);
+        AdaptiveConcurrencyLimiter.Permit running = limiter.tryAcquire(Priority.WRITE, 0, TimeUnit.MILLISECONDS);
+
+        AtomicReference<AdaptiveConcurrencyLimiter.Permit> acquired = new AtomicReference<>();
+        Thread waiter = new Thread(() -> {
+            try {
+                acquired.set(limiter.tryAcquire(Priority.WRITE, 5, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                // Expected; the granted slot must have been handed back
+            }
+        });
+        waiter.start();
+        Thread.sleep(100);
+        synchronized (limiter) {
+            // The interrupt wakes the waiter, which then blocks on the monitor while its slot is granted
+            waiter.interrupt();
+            Thread.sleep(20);
+            running.release(FAST);
+        }
+        waiter.join(5000);
+
+        if (acquired.get() != null) {
+            acquired.get().release(FAST);
+        }
+        assertEquals(0, limiter.getInFlight());
+    }
+}
@@ -0,0 +1,81 @@
+package utils;
+
+import com.example.kirana.Utils.CountMinSketch;
+import com.example.kirana.Utils.HyperLogLog;
+import com.example.kirana.Utils.QuantileHistogram;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SketchTest {
+
+    @Test
+    public void testQuantilesWithinRelativeError() {
+        Random random = new Random(42);
+        double[] values = new double[100_000];
+        QuantileHistogram first = new QuantileHistogram();
+        QuantileHistogram second = new QuantileHistogram();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Math.exp(random.nextGaussian() * 1.5 + 6);
+            (i % 2 == 0 ? first : second).add(values[i]);
+        }
+        Arrays.sort(values);
+
+        // Merged halves behave like one sketch, also after a serialization round trip
+        QuantileHistogram merged = QuantileHistogram.fromBytes(first.toBytes());
+        merged.merge(second);
+        assertEquals(values.length, merged.getCount());
+        for (double quantile : new double[]{0.5, 0.9, 0.99}) {
+            double exact = values[(int) (quantile * (values.length - 1))];
+            double estimate = merged.quantile(quantile);
+            assertTrue(Math.abs(estimate - exact) <= exact * QuantileHistogram.RELATIVE_ACCURACY * 1.0001,
+                    "p" + quantile + " estimate " + estimate + " exact " + exact);
+        }
+    }
+
+    @Test
+    public void testCountMinFindsHeavyHitters() {
+        CountMinSketch first = new CountMinSketch();
+        CountMinSketch second = new CountMinSketch();
+        for (int i = 0; i < 10_000; i++) {
+            first.add("INR");
+        }
+        for (int i = 0; i < 2_000; i++) {
+            second.add("USD");
+        }
+        for (int i = 0; i < 100; i++) {
+            second.add("C" + i);
+        }
+
+        CountMinSketch merged = CountMinSketch.fromBytes(first.toBytes());
+        merged.merge(second);
+        assertEquals("INR", merged.topItems().get(0));
+        assertEquals("USD", merged.topItems().get(1));
+        assertTrue(merged.estimate("INR") >= 10_000);
+        assertTrue(merged.estimate("INR") <= 10_000 + merged.getMaxError());
+        assertTrue(merged.topItems().size() <= CountMinSketch.TOP_K);
+    }
+
+    @Test
+    public void testHyperLogLogDistinctCount() {
+        HyperLogLog first = new HyperLogLog();
+        HyperLogLog second = new HyperLogLog();
+        for (int i = 0; i < 60_000; i++) {
+            first.add("amount-" + i);
+        }
+        // Overlapping items are only counted once after merging
+        for (int i = 40_000; i < 100_000; i++) {
+            second.add("amount-" + i);
+        }
+
+        HyperLogLog merged = HyperLogLog.fromBytes(first.toBytes());
+        merged.merge(second);
+        double estimate = merged.estimate();
+        assertTrue(Math.abs(estimate - 100_000) <= 100_000 * 4 * HyperLogLog.RELATIVE_STANDARD_ERROR,
+                "estimate " + estimate);
+    }
+}
@@ -0,0 +1,57 @@
+package utils;
+
+import com.example.kirana.Model.TransactionModel;
+import com.example.kirana.Utils.TransactionBinaryCodec;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TransactionBinaryCodecTest {
+    private final ObjectMapper cborMapper = new ObjectMapper(new CBORFactory()).registerModule(TransactionBinaryCodec.module());
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        TransactionModel transaction = new TransactionModel();
+        transaction.setId("65f000000000000000000001");
+        transaction.setAmount(new BigDecimal("1234.50"));
+        transaction.setType(TransactionModel.TransactionType.DEBIT);
+        transaction.setCurrency("INR");
+        transaction.setTimestamp(LocalDateTime.of(2024, 3, 2, 10, 15, 30, 123_000_000));
+
+        TransactionModel decoded = cborMapper.readValue(cborMapper.writeValueAsBytes(transaction), TransactionModel.class);
+
+        assertEquals(transaction.getId(), decoded.getId());
+        assertEquals(transaction.getAmount(), decoded.getAmount());
+        assertEquals(transaction.getType(), decoded.getType());
+        assertEquals(transaction.getCurrency(), decoded.getCurrency());
+        assertEquals(transaction.getTimestamp(), decoded.getTimestamp());
+    }
+
+    // An unknown type ordinal is a mapping error (400), not an ArrayIndexOutOfBoundsException (500)
+    @Test
+    public void testUnknownTypeOrdinalIsRejected() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonGenerator gen = new CBORFactory().createGenerator(out)) {
+            gen.writeStartArray();
+            gen.writeString("1");
+            gen.writeNumber(100L);
+            gen.writeNumber(0);
+            gen.writeNumber(7);
+            gen.writeString("INR");
+            gen.writeNull();
+            gen.writeNull();
+            gen.writeEndArray();
+        }
+
+        assertThrows(MismatchedInputException.class, () -> cborMapper.readValue(out.toByteArray(), TransactionModel.class));
+    }
+}